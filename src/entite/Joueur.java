@@ -1,5 +1,6 @@
 package entite;
 
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 /**
@@ -13,6 +14,7 @@ public class Joueur {
     private double y;
     private double angle;
     private boolean positionInitialized = false; // Flag pour savoir si la position est valide
+    private final AtomicInteger version = new AtomicInteger(); // incrémentée à chaque changement de x, y ou angle (rendu des frames inchangées évité)
 
     // Interpolation variables
     private double targetX;
@@ -84,15 +86,32 @@ public class Joueur {
     }
 
     public void setX(double x) {
-        this.x = x;
+        if (x != this.x) {
+            this.x = x;
+            version.incrementAndGet();
+        }
     }
 
     public void setY(double y) {
-        this.y = y;
+        if (y != this.y) {
+            this.y = y;
+            version.incrementAndGet();
+        }
     }
 
     public void setAngle(double angle) {
-        this.angle = normalizeAngle(angle);
+        double normalise = normalizeAngle(angle);
+        if (normalise != this.angle) {
+            this.angle = normalise;
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Numéro de version de la position et de l'orientation : change à chaque modification effective
+     */
+    public int getVersion() {
+        return version.get();
     }
 
     /**
@@ -102,6 +121,7 @@ public class Joueur {
         this.x = x;
         this.y = y;
         this.angle = normalizeAngle(angle);
+        version.incrementAndGet();
         
         // Reset targets to avoid interpolation glitch when teleporting
         this.targetX = x;
@@ -134,12 +154,16 @@ public class Joueur {
             x = targetX;
             y = targetY;
             angle = targetAngle;
+            version.incrementAndGet();
             return;
         }
         
         // Interpolation linéaire simple (LERP)
         double t = Math.min(1.0, delta * INTERPOLATION_SPEED);
         
+        double ancienX = x;
+        double ancienY = y;
+        double ancienAngle = angle;
         this.x += (targetX - this.x) * t;
         this.y += (targetY - this.y) * t;
         
@@ -150,6 +174,9 @@ public class Joueur {
         while (diff > Math.PI) diff -= 2 * Math.PI;
         
         this.angle = normalizeAngle(this.angle + diff * t);
+        if (x != ancienX || y != ancienY || angle != ancienAngle) {
+            version.incrementAndGet();
+        }
     }
 
     /**
@@ -189,6 +216,7 @@ public class Joueur {
                     this.targetY = newY;
                     this.targetAngle = newAngle;
                     this.positionInitialized = true;
+                    version.incrementAndGet();
                 } else {
                     // Mises à jour suivantes : interpolation
                     setTargetPosition(newX, newY, newAngle);
@@ -205,6 +233,7 @@ public class Joueur {
                     this.targetX = newX;
                     this.targetY = newY;
                     this.positionInitialized = true;
+                    version.incrementAndGet();
                 } else {
                     this.targetX = newX;
                     this.targetY = newY;
@@ -231,7 +260,7 @@ public class Joueur {
      * @param degrees nombre de degrés à ajouter (positif = sens horaire, négatif = sens antihoraire)
      */
     public void rotateDegrees(double degrees) {
-        angle = normalizeAngle(angle + Math.toRadians(degrees));
+        setAngle(angle + Math.toRadians(degrees)); // rotation nulle : version inchangée
     }
 
     /**
@@ -239,7 +268,7 @@ public class Joueur {
      * @param radians nombre de radians à ajouter
      */
     public void rotateRadians(double radians) {
-        angle = normalizeAngle(angle + radians);
+        setAngle(angle + radians);
     }
 
     /**
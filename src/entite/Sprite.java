@@ -1,36 +1,46 @@
 package entite;
 
-import javax.imageio.ImageIO;
+import moteur_graphique.CacheAssets;
+
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Sprite {
     private double x;
     private double y;
-    private BufferedImage image;
+    private volatile BufferedImage image; // remplacée par l'image du cache quand son chargement se termine
     private String playerId; // Pour associer un sprite à un joueur spécifique (multijoueur)
+    private String imagePath; // image partagée acquise dans le cache d'assets (null une fois libérée)
+    private final AtomicInteger version = new AtomicInteger(); // incrémentée à chaque déplacement (le rendu saute les frames inchangées)
 
     public Sprite(double x, double y, String imagePath) {
-        this.x = x;
-        this.y = y;
-        try {
-            this.image = ImageIO.read(new File(imagePath));
-        } catch (IOException e) {
-            this.image = createDefaultImage();
-        }
+        this(x, y, imagePath, null);
     }
 
+    /**
+     * L'image vient du cache d'assets partagé : décodée une seule fois pour tous les sprites du même chemin.
+     * Ne bloque jamais (création depuis les callbacks réseau) : si l'image n'est pas encore en cache,
+     * le sprite affiche l'image par défaut jusqu'à la fin de son chargement.
+     */
     public Sprite(double x, double y, String imagePath, String playerId) {
         this.x = x;
         this.y = y;
-        try {
-            this.image = ImageIO.read(new File(imagePath));
-        } catch (IOException e) {
+        this.imagePath = imagePath;
+        this.playerId = playerId;
+        CompletableFuture<BufferedImage> chargement = CacheAssets.getPartage().acquerirAsync(imagePath);
+        if (chargement.isDone() && !chargement.isCompletedExceptionally()) {
+            this.image = chargement.join();
+        } else {
             this.image = createDefaultImage();
+            chargement.thenAccept(this::remplacerImage); // exécuté sur-le-champ s'il vient de se terminer
         }
-        this.playerId = playerId;
+    }
+
+    private void remplacerImage(BufferedImage chargee) {
+        image = chargee;
+        version.incrementAndGet(); // la dernière frame rendue montre encore l'image par défaut
     }
 
     public Sprite(double x, double y) {
@@ -57,8 +67,32 @@ public class Sprite {
     public double getY() { return y; }
     public BufferedImage getImage() { return image; }
 
-    public void setX(double x) { this.x = x; }
-    public void setY(double y) { this.y = y; }
+    public void setX(double x) {
+        if (x != this.x) {
+            this.x = x;
+            version.incrementAndGet();
+        }
+    }
+
+    public void setY(double y) {
+        if (y != this.y) {
+            this.y = y;
+            version.incrementAndGet();
+        }
+    }
+
+    /** Numéro de version de la position (change à chaque déplacement effectif) */
+    public int getVersion() { return version.get(); }
 
     public String getPlayerName() { return playerId; }
+
+    /**
+     * Rend l'image au cache d'assets quand le sprite quitte la scène (sans effet s'il n'en a pas)
+     */
+    public void liberer() {
+        if (imagePath != null) {
+            CacheAssets.getPartage().liberer(imagePath);
+            imagePath = null;
+        }
+    }
 }
@@ -1,6 +1,11 @@
 package game;
 
+import moteur_graphique.CacheAssets;
+import moteur_graphique.CompilateurMap;
+import moteur_graphique.PaquetMap;
 import moteur_graphique.Window;
+import moteur_graphique.raycasting.BanqueTextures;
+import moteur_graphique.raycasting.Eclairage;
 import moteur_graphique.raycasting.MapBool;
 import moteur_graphique.raycasting.Raycasting;
 import entite.Joueur;
@@ -11,8 +16,11 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.net.InetAddress;
 import java.net.NetworkInterface;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
@@ -20,12 +28,17 @@ public class MainGameMultiplayer implements Runnable, NetworkListener {
 
     private static final Logger LOGGER = Logger.getLogger(MainGameMultiplayer.class.getName());
 
-    private final MapBool map;
+    // La map est chargée en arrière-plan : map et raycasting restent null tant qu'elle n'est pas prête
+    private final CompletableFuture<PaquetMap> chargementMap;
+    private volatile MapBool map;
     private final Joueur joueur;
 
     //séparation : Window pour l'UI/Fenêtre, GameRenderer pour le calcul/rendu
     private final Window window;
-    private final Raycasting raycasting;
+    private Raycasting raycasting;
+
+    // Mesures de démarrage (depuis l'entrée dans le constructeur)
+    private final long debutDemarrage;
 
     private final Input input;
     private Robot robot;
@@ -37,7 +50,10 @@ public class MainGameMultiplayer implements Runnable, NetworkListener {
     public static final int FPS = 60;
     public static final long OPTIMAL_TIME = 1_000_000_000 / FPS;
 
+    private static final double DISTANCE_BROUILLARD = 20.0; // en cases : au-delà, tout est noir
+
     private static final String PLAYER_SPRITE_PATH = "assets/sprites/jonesy.png";
+    private static final String DOSSIER_TEXTURES_MURS = "assets/textures";
 
     private boolean mouseCaptured = true;
     private boolean escapePressed = false;
@@ -47,14 +63,18 @@ public class MainGameMultiplayer implements Runnable, NetworkListener {
     private final Point centerPoint;
 
     public MainGameMultiplayer(String playerId, int port, String serverIp, int serverPort) {
-        map = new MapBool("assets/maps/map.txt");
+        debutDemarrage = System.nanoTime();
+        // Paquet compilé (CompilateurMap) si présent, sinon fichiers texte ; parsing et validation sur un thread dédié
+        chargementMap = PaquetMap.chargerOuTexteAsync(Path.of(CompilateurMap.PAQUET),
+                CompilateurMap.MAP_TEXTE, CompilateurMap.MAP_BSP_TEXTE);
+        // Sprite des joueurs décodé en arrière-plan : l'arrivée d'un joueur ne lit jamais le disque
+        CacheAssets.getPartage().precharger(PLAYER_SPRITE_PATH);
         joueur = new Joueur(playerId, 2.0, 2.0, 0.0);
         input = new Input();
         playerSprites = new ConcurrentHashMap<>();
         centerPoint = new Point();
 
-        // 1. Initialisation du moteur de rendu (logique pure)
-        raycasting = new Raycasting(map, joueur);
+        // 1. Le moteur de rendu est créé par la boucle de jeu quand la map est prête (voir terminerChargementMap)
 
         // 2. Initialisation de la fenêtre (UI)
         // On définit une taille par défaut, par exemple 1280x720 ou 1920x1080
@@ -63,10 +83,9 @@ public class MainGameMultiplayer implements Runnable, NetworkListener {
         //GameRenderer r = new TopDownRenderer(map, joueur);
         //window.setRenderer(r);
 
-        // 3. On lie le moteur à la fenêtre
-        window.setRenderer(raycasting);
+        LOGGER.info(String.format("Fenêtre ouverte en %.1f ms", (System.nanoTime() - debutDemarrage) / 1_000_000.0));
 
-        // 4. Gestion des Inputs sur la fenêtre
+        // 3. Gestion des Inputs sur la fenêtre
         window.addInputListener(input);
 
         try {
@@ -94,6 +113,47 @@ public class MainGameMultiplayer implements Runnable, NetworkListener {
 
         // Log via la fenêtre
         window.addLogMessage("Connecté en tant que " + playerId, Color.GREEN);
+        if (!chargementMap.isDone()) {
+            window.addLogMessage("Chargement de la map...", Color.WHITE);
+        }
+    }
+
+    /**
+     * Appelé par la boucle de jeu une fois le chargement terminé : crée le moteur de rendu,
+     * le branche sur la fenêtre et y ajoute les joueurs arrivés pendant le chargement.
+     */
+    private void terminerChargementMap() {
+        try {
+            map = chargementMap.join().getGrille();
+        } catch (CompletionException e) {
+            LOGGER.log(java.util.logging.Level.SEVERE, "Impossible de charger la map", e.getCause());
+            window.addLogMessage("Impossible de charger la map", Color.RED);
+            stop();
+            return;
+        }
+
+        Raycasting moteur = new Raycasting(map, joueur);
+        moteur.setRenduParallele(true);
+        moteur.setProjectionPlanCamera(true);
+        moteur.setResolutionDynamique(true);
+        moteur.setTempsFrameCible(OPTIMAL_TIME / 1_000_000.0);
+        moteur.setMipmaps(true);
+        moteur.setEclairage(new Eclairage(Color.BLACK, DISTANCE_BROUILLARD));
+        // Textures 8 bits par case si le dossier en fournit (mur_1.png, mur_A.png...), sinon texture unique
+        moteur.setTexturesMurs(BanqueTextures.chargerDossier(DOSSIER_TEXTURES_MURS));
+        synchronized (playerSprites) {
+            for (Sprite sprite : playerSprites.values()) {
+                moteur.addSprite(sprite);
+            }
+            raycasting = moteur;
+        }
+
+        // On lie le moteur à la fenêtre (rendu headless présenté par la fenêtre)
+        window.setFrameRenderer(raycasting, joueur);
+
+        double ms = (System.nanoTime() - debutDemarrage) / 1_000_000.0;
+        LOGGER.info(String.format("Partie jouable en %.1f ms", ms));
+        window.addLogMessage(String.format("Map chargée (%.0f ms)", ms), Color.GREEN);
     }
 
     @Override
@@ -107,6 +167,9 @@ public class MainGameMultiplayer implements Runnable, NetworkListener {
             lastLoopTime = now;
             double delta = updateLength / 1_000_000_000.0;
 
+            if (map == null && chargementMap.isDone()) {
+                terminerChargementMap();
+            }
             update(delta);
 
             // Rendu via la fenêtre
@@ -120,6 +183,8 @@ public class MainGameMultiplayer implements Runnable, NetworkListener {
             }
         }
 
+        LOGGER.info(String.format("Frames : %d rendues, %d réutilisées, %d sautées",
+                window.getFramesRendues(), window.getFramesReutilisees(), window.getFramesSautees()));
         network.shutdown();
     }
 
@@ -129,7 +194,8 @@ public class MainGameMultiplayer implements Runnable, NetworkListener {
         double moveSpeed = 1.5 * delta;
         double rotSpeed = 2.0 * delta;
 
-        boolean moved = handleMovement(moveSpeed);
+        // Pas de déplacement (ni collisions) tant que la map n'est pas chargée
+        boolean moved = map != null && handleMovement(moveSpeed);
         moved |= handleKeyboardRotation(rotSpeed);
         moved |= handleMouseRotation();
 
@@ -301,8 +367,8 @@ public class MainGameMultiplayer implements Runnable, NetworkListener {
                 if (remotePlayer != null && remotePlayer.isPositionInitialized()) {
                     Sprite playerSprite = new Sprite(x, y, PLAYER_SPRITE_PATH, playerId);
                     playerSprites.put(playerId, playerSprite);
-                    // Ajout du sprite au moteur de rendu (Raycasting)
-                    raycasting.addSprite(playerSprite);
+                    // Ajout du sprite au moteur de rendu (Raycasting), sinon fait à la fin du chargement
+                    if (raycasting != null) raycasting.addSprite(playerSprite);
                 }
             }
         }
@@ -324,7 +390,7 @@ public class MainGameMultiplayer implements Runnable, NetworkListener {
                         playerId
                 );
                 playerSprites.put(playerId, playerSprite);
-                raycasting.addSprite(playerSprite);
+                if (raycasting != null) raycasting.addSprite(playerSprite);
             }
         }
 
@@ -336,11 +402,14 @@ public class MainGameMultiplayer implements Runnable, NetworkListener {
     @Override
     public void onPlayerLeave(String playerId) {
         Sprite sprite;
+        Raycasting moteur;
         synchronized (playerSprites) {
             sprite = playerSprites.remove(playerId);
+            moteur = raycasting;
         }
         if (sprite != null) {
-            raycasting.removeSprite(sprite);
+            if (moteur != null) moteur.removeSprite(sprite);
+            sprite.liberer();
             // Log sur la fenêtre
             window.addLogMessage(playerId + " a quitté la partie", Color.RED);
         }
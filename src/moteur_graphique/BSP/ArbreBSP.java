@@ -1,7 +1,8 @@
 package moteur_graphique.BSP;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 public class ArbreBSP {
 
@@ -9,6 +10,23 @@ public class ArbreBSP {
     // Tolérance pour éviter les erreurs de virgule flottante
     private static final double EPSILON = 1e-5;
 
+    // Choix du mur diviseur : coût = poidsCoupes * coupes + poidsEquilibre * |gauche - droite|
+    private static final int CANDIDATS_MAX = 24;
+    private int candidatsMax = CANDIDATS_MAX;
+    private double poidsCoupes = 4.0;
+    private double poidsEquilibre = 1.0;
+
+    // Construction parallèle (pool commun : un ArbreBSP est jetable, il ne garde pas de threads)
+    private static final int SEUIL_PARALLELE = 2048;
+    private boolean constructionParallele = false;
+    private int seuilParallele = SEUIL_PARALLELE;
+
+    // Statistiques de la dernière construction
+    private int profondeur;
+    private int nbNoeuds;
+    private int nbCoupes;
+    private double dureeConstructionMs;
+
     // Détermine de quel côté un point est par rapport à une ligne
     private int coterDuPoint(Mur murPartition, double pointX, double pointY) {
         double dx = murPartition.x1 - murPartition.x0;
@@ -73,62 +91,251 @@ public class ArbreBSP {
 
     private Mur[] couperMur(Mur murPartition, Mur murACouper) {
         double[] intersection = calculerIntersection(murPartition, murACouper);
-        // On crée les deux nouveaux murs
-        Mur mur1 = new Mur(murACouper.x0, murACouper.y0, intersection[0], intersection[1]);
-        Mur mur2 = new Mur(intersection[0], intersection[1], murACouper.x1, murACouper.y1);
+        // On crée les deux nouveaux murs (même texture que le mur coupé)
+        Mur mur1 = new Mur(murACouper.x0, murACouper.y0, intersection[0], intersection[1], murACouper.texture);
+        Mur mur2 = new Mur(intersection[0], intersection[1], murACouper.x1, murACouper.y1, murACouper.texture);
         return new Mur[]{mur1, mur2};
     }
 
+    /**
+     * Construit l'arbre de la map. Le mur diviseur de chaque noeud est choisi par choisirPartition ;
+     * les statistiques (profondeur, noeuds, coupes, durée) sont remises à zéro à chaque appel.
+     * En construction parallèle, les sous-arbres d'au moins seuilParallele murs sont construits
+     * par des tâches fork/join : l'arbre obtenu est exactement celui de la construction séquentielle.
+     */
     public NoeudBSP construireBSP(MapMur map) {
-        if (map.getMurs().length == 0) return null;
+        long debut = System.nanoTime();
+        Mur[] murs = map.getMurs();
+        NoeudBSP noeud = constructionParallele && murs.length >= seuilParallele
+                ? ForkJoinPool.commonPool().invoke(new TacheConstruction(murs, 0, murs.length))
+                : construire(murs, 0, murs.length, false);
+        dureeConstructionMs = (System.nanoTime() - debut) / 1_000_000.0;
+        mesurer(noeud);
+        nbCoupes = nbNoeuds - murs.length; // chaque mur ou morceau de mur coupé occupe un noeud
+        this.racine = noeud;
+        return noeud;
+    }
+
+    /**
+     * Tâche fork/join : construit le sous-arbre des murs [debut, fin[ du tableau
+     */
+    private final class TacheConstruction extends RecursiveTask<NoeudBSP> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Mur[] murs; // tâche jamais sérialisée
+        private final int debut;
+        private final int fin;
+
+        TacheConstruction(Mur[] murs, int debut, int fin) {
+            this.murs = murs;
+            this.debut = debut;
+            this.fin = fin;
+        }
+
+        @Override
+        protected NoeudBSP compute() {
+            return construire(murs, debut, fin, true);
+        }
+    }
+
+    /**
+     * Sous-arbre des murs [debut, fin[ : les murs des deux côtés du diviseur sont rangés dans un seul
+     * tableau à la taille exacte (gauche puis droite), que les enfants lisent par plages d'index.
+     * Le tableau reçu n'est jamais modifié.
+     */
+    private NoeudBSP construire(Mur[] murs, int debut, int fin, boolean parallele) {
+        if (debut >= fin) return null;
 
-        Mur murPartition = map.getMurs()[0];
+        int indexPartition = choisirPartition(murs, debut, fin);
+        Mur murPartition = murs[indexPartition];
         NoeudBSP noeud = new NoeudBSP(murPartition);
         noeud.mur = murPartition;
 
-        List<Mur> mursGauche = new ArrayList<>();
-        List<Mur> mursDroite = new ArrayList<>();
+        // premier passage : taille de chaque côté (un mur coupé compte des deux côtés)
+        int nbGauche = 0;
+        int nbDroite = 0;
+        for (int i = debut; i < fin; i++) {
+            if (i == indexPartition) continue;
+            int classification = classerMur(murPartition, murs[i]);
+            if (classification >= 0) nbGauche++;
+            if (classification <= 0) nbDroite++;
+        }
 
-        for (int i = 1; i < map.getMurs().length; i++) {
-            Mur mur = map.getMurs()[i];
+        Mur[] enfants = new Mur[nbGauche + nbDroite];
+        int gauche = 0;
+        int droite = nbGauche;
+        for (int i = debut; i < fin; i++) {
+            if (i == indexPartition) continue;
+            Mur mur = murs[i];
             int classification = classerMur(murPartition, mur);
 
             if (classification == 1) {
-                mursGauche.add(mur);
+                enfants[gauche++] = mur;
             } else if (classification == -1) {
-                mursDroite.add(mur);
+                enfants[droite++] = mur;
             } else {
                 // CAS COUPURE (classification == 0)
                 Mur[] mursCoupees = couperMur(murPartition, mur);
                 int coteDepart = coterDuPoint(murPartition, mur.x0, mur.y0);
 
                 if (coteDepart == 1) { // Début à Gauche
-                    mursGauche.add(mursCoupees[0]);
-                    mursDroite.add(mursCoupees[1]);
+                    enfants[gauche++] = mursCoupees[0];
+                    enfants[droite++] = mursCoupees[1];
                 } else if (coteDepart == -1) { // Début à Droite
-                    mursDroite.add(mursCoupees[0]);
-                    mursGauche.add(mursCoupees[1]);
+                    enfants[droite++] = mursCoupees[0];
+                    enfants[gauche++] = mursCoupees[1];
                 } else {
                     // SAUVETAGE : Si le point de départ est pile sur la ligne (coteDepart == 0)
                     // On regarde le point d'arrivée pour savoir l'orientation
                     int coteArrivee = coterDuPoint(murPartition, mur.x1, mur.y1);
                     if (coteArrivee == 1) { // Fin à Gauche -> Début (0) considéré Droite relative ? Non, juste l'inverse.
                         // Si Fin est Gauche, alors Début est "Neutre/Droite", donc :
-                        mursDroite.add(mursCoupees[0]); // Partie "sur la ligne" ou presque
-                        mursGauche.add(mursCoupees[1]);
+                        enfants[droite++] = mursCoupees[0]; // Partie "sur la ligne" ou presque
+                        enfants[gauche++] = mursCoupees[1];
                     } else {
-                        mursGauche.add(mursCoupees[0]);
-                        mursDroite.add(mursCoupees[1]);
+                        enfants[gauche++] = mursCoupees[0];
+                        enfants[droite++] = mursCoupees[1];
                     }
                 }
             }
         }
 
-        noeud.gauche = construireBSP(new MapMur(mursGauche.toArray(new Mur[0])));
-        noeud.droit = construireBSP(new MapMur(mursDroite.toArray(new Mur[0])));
-        this.racine = noeud;
+        if (parallele && nbGauche >= seuilParallele && nbDroite >= seuilParallele) {
+            TacheConstruction tacheGauche = new TacheConstruction(enfants, 0, nbGauche);
+            tacheGauche.fork();
+            noeud.droit = construire(enfants, nbGauche, enfants.length, true);
+            noeud.gauche = tacheGauche.join();
+        } else {
+            // un seul gros côté : il peut encore se découper en tâches plus bas
+            noeud.gauche = construire(enfants, 0, nbGauche, parallele);
+            noeud.droit = construire(enfants, nbGauche, enfants.length, parallele);
+        }
         return noeud;
     }
 
+    /**
+     * Index du mur diviseur : parmi au plus candidatsMax murs régulièrement espacés dans la plage,
+     * celui de plus faible coût poidsCoupes * coupes + poidsEquilibre * |gauche - droite|
+     * (le premier en cas d'égalité). Avec un seul candidat, c'est le premier mur de la plage.
+     */
+    private int choisirPartition(Mur[] murs, int debut, int fin) {
+        int taille = fin - debut;
+        int nbCandidats = Math.min(candidatsMax, taille);
+        if (nbCandidats <= 1) return debut;
+        int meilleur = debut;
+        double meilleurCout = Double.POSITIVE_INFINITY;
+        for (int k = 0; k < nbCandidats; k++) {
+            // échantillon déterministe : même choix quel que soit l'ordre de construction des sous-arbres
+            int candidat = debut + (int) ((long) k * taille / nbCandidats);
+            double cout = coutPartition(murs, debut, fin, candidat, meilleurCout);
+            if (cout < meilleurCout) {
+                meilleurCout = cout;
+                meilleur = candidat;
+            }
+        }
+        return meilleur;
+    }
+
+    /**
+     * Coût du candidat, abandonné (infini) dès que les coupes seules dépassent le meilleur coût connu
+     */
+    private double coutPartition(Mur[] murs, int debut, int fin, int candidat, double meilleurCout) {
+        Mur murPartition = murs[candidat];
+        int gauche = 0;
+        int droite = 0;
+        int coupes = 0;
+        for (int i = debut; i < fin; i++) {
+            if (i == candidat) continue;
+            int classification = classerMur(murPartition, murs[i]);
+            if (classification == 1) {
+                gauche++;
+            } else if (classification == -1) {
+                droite++;
+            } else {
+                coupes++;
+                if (poidsCoupes * coupes >= meilleurCout) return Double.POSITIVE_INFINITY;
+            }
+        }
+        // chaque coupe ajoute un morceau de chaque côté
+        return poidsCoupes * coupes + poidsEquilibre * Math.abs(gauche - droite);
+    }
+
+    /**
+     * Nombre de noeuds et profondeur de l'arbre (parcours sans récursion)
+     */
+    private void mesurer(NoeudBSP racine) {
+        nbNoeuds = 0;
+        profondeur = 0;
+        if (racine == null) return;
+        ArrayDeque<NoeudBSP> pile = new ArrayDeque<>();
+        ArrayDeque<Integer> niveaux = new ArrayDeque<>();
+        pile.push(racine);
+        niveaux.push(1);
+        while (!pile.isEmpty()) {
+            NoeudBSP noeud = pile.pop();
+            int niveau = niveaux.pop();
+            nbNoeuds++;
+            profondeur = Math.max(profondeur, niveau);
+            if (noeud.gauche != null) {
+                pile.push(noeud.gauche);
+                niveaux.push(niveau + 1);
+            }
+            if (noeud.droit != null) {
+                pile.push(noeud.droit);
+                niveaux.push(niveau + 1);
+            }
+        }
+    }
+
     public NoeudBSP getRacine() { return racine; }
-}
\ No newline at end of file
+
+    /**
+     * Forme aplatie du dernier arbre construit, pour les parcours et requêtes rapides
+     * (localisation d'un point, ligne de vue, collisions d'un cercle en mouvement)
+     */
+    public ArbreBSPPlat aplatir() { return ArbreBSPPlat.depuisArbre(racine); }
+
+    /**
+     * Nombre maximal de murs évalués comme diviseur à chaque noeud (1 : toujours le premier mur, sans évaluation)
+     */
+    public void setCandidatsMax(int candidatsMax) {
+        if (candidatsMax < 1) {
+            throw new IllegalArgumentException("Nombre de candidats invalide: " + candidatsMax);
+        }
+        this.candidatsMax = candidatsMax;
+    }
+    public int getCandidatsMax() { return candidatsMax; }
+
+    /** Poids d'un mur coupé en deux dans le coût d'un diviseur */
+    public void setPoidsCoupes(double poidsCoupes) { this.poidsCoupes = poidsCoupes; }
+    public double getPoidsCoupes() { return poidsCoupes; }
+
+    /** Poids de l'écart entre le nombre de murs à gauche et à droite dans le coût d'un diviseur */
+    public void setPoidsEquilibre(double poidsEquilibre) { this.poidsEquilibre = poidsEquilibre; }
+    public double getPoidsEquilibre() { return poidsEquilibre; }
+
+    /**
+     * Active la construction des gros sous-arbres sur plusieurs coeurs (arbre identique à la construction séquentielle)
+     */
+    public void setConstructionParallele(boolean constructionParallele) { this.constructionParallele = constructionParallele; }
+    public boolean isConstructionParallele() { return constructionParallele; }
+
+    /** Nombre minimal de murs de chaque côté d'un noeud pour construire ses deux sous-arbres en parallèle */
+    public void setSeuilParallele(int seuilParallele) {
+        if (seuilParallele < 1) {
+            throw new IllegalArgumentException("Seuil parallèle invalide: " + seuilParallele);
+        }
+        this.seuilParallele = seuilParallele;
+    }
+    public int getSeuilParallele() { return seuilParallele; }
+
+    /** Profondeur de l'arbre (1 pour une racine seule) construit par le dernier construireBSP */
+    public int getProfondeur() { return profondeur; }
+
+    public int getNbNoeuds() { return nbNoeuds; }
+
+    /** Murs coupés en deux pendant la dernière construction */
+    public int getNbCoupes() { return nbCoupes; }
+
+    public double getDureeConstructionMs() { return dureeConstructionMs; }
+}
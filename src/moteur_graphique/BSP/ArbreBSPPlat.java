@@ -0,0 +1,376 @@
+package moteur_graphique.BSP;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Arbre BSP aplati en tableaux parallèles, construit une fois à partir d'un arbre de NoeudBSP.
+ * <p>
+ * Les noeuds sont numérotés en ordre préfixe (l'enfant gauche d'un noeud, s'il existe, est le noeud
+ * suivant) ; pour le noeud i : segments[4i..4i+3] = x0, y0, x1, y1 de son mur diviseur,
+ * boites[4i..4i+3] = minX, minY, maxX, maxY de son sous-arbre, gauche[i] / droit[i] = index des
+ * enfants (-1 : pas d'enfant), texture[i] = index dans nomsTextures. Chaque noeud porte exactement
+ * un segment (son diviseur), la plage de segments du noeud i est donc [i, i + 1[ et celle de son
+ * sous-arbre [i, i + taille du sous-arbre[.
+ * <p>
+ * Les parcours lisent des tableaux contigus au lieu de suivre des références d'objets dispersées
+ * dans le tas. Immuable après construction : partageable entre threads.
+ */
+public final class ArbreBSPPlat {
+
+    final int nbNoeuds;
+    final int profondeur;
+    final double[] segments;
+    final double[] boites;
+    final int[] gauche;
+    final int[] droit;
+    final int[] texture;
+    final String[] nomsTextures;
+
+    private ArbreBSPPlat(int nbNoeuds, int profondeur, double[] segments, double[] boites,
+                         int[] gauche, int[] droit, int[] texture, String[] nomsTextures) {
+        this.nbNoeuds = nbNoeuds;
+        this.profondeur = profondeur;
+        this.segments = segments;
+        this.boites = boites;
+        this.gauche = gauche;
+        this.droit = droit;
+        this.texture = texture;
+        this.nomsTextures = nomsTextures;
+    }
+
+    /**
+     * Aplatit l'arbre (racine renvoyée par ArbreBSP.construireBSP, null pour une map vide), sans récursion
+     */
+    public static ArbreBSPPlat depuisArbre(NoeudBSP racine) {
+        // premier passage : nombre de noeuds
+        int nbNoeuds = 0;
+        ArrayDeque<NoeudBSP> pile = new ArrayDeque<>();
+        if (racine != null) pile.push(racine);
+        while (!pile.isEmpty()) {
+            NoeudBSP noeud = pile.pop();
+            nbNoeuds++;
+            if (noeud.droit != null) pile.push(noeud.droit);
+            if (noeud.gauche != null) pile.push(noeud.gauche);
+        }
+
+        double[] segments = new double[4 * nbNoeuds];
+        double[] boites = new double[4 * nbNoeuds];
+        int[] gauche = new int[nbNoeuds];
+        int[] droit = new int[nbNoeuds];
+        int[] texture = new int[nbNoeuds];
+        int[] niveaux = new int[nbNoeuds];
+        Map<String, Integer> indexTextures = new HashMap<>();
+
+        // second passage, même ordre préfixe : lien = 2 * index du parent (+1 pour un enfant droit), -1 pour la racine
+        ArrayDeque<Integer> liens = new ArrayDeque<>();
+        if (racine != null) {
+            pile.push(racine);
+            liens.push(-1);
+        }
+        int index = 0;
+        int profondeur = 0;
+        while (!pile.isEmpty()) {
+            NoeudBSP noeud = pile.pop();
+            int lien = liens.pop();
+            int i = index++;
+            niveaux[i] = 1;
+            if (lien >= 0) {
+                int parent = lien >> 1;
+                if ((lien & 1) == 0) {
+                    gauche[parent] = i;
+                } else {
+                    droit[parent] = i;
+                }
+                niveaux[i] = niveaux[parent] + 1;
+            }
+            profondeur = Math.max(profondeur, niveaux[i]);
+            Mur mur = noeud.mur;
+            segments[4 * i] = mur.x0;
+            segments[4 * i + 1] = mur.y0;
+            segments[4 * i + 2] = mur.x1;
+            segments[4 * i + 3] = mur.y1;
+            texture[i] = indexTextures.computeIfAbsent(mur.texture == null ? "" : mur.texture, t -> indexTextures.size());
+            gauche[i] = -1;
+            droit[i] = -1;
+            if (noeud.droit != null) {
+                pile.push(noeud.droit);
+                liens.push(2 * i + 1);
+            }
+            if (noeud.gauche != null) {
+                pile.push(noeud.gauche);
+                liens.push(2 * i);
+            }
+        }
+
+        // boîtes englobantes : en ordre préfixe les enfants suivent leur parent, parcours à l'envers
+        for (int i = nbNoeuds - 1; i >= 0; i--) {
+            boites[4 * i] = Math.min(segments[4 * i], segments[4 * i + 2]);
+            boites[4 * i + 1] = Math.min(segments[4 * i + 1], segments[4 * i + 3]);
+            boites[4 * i + 2] = Math.max(segments[4 * i], segments[4 * i + 2]);
+            boites[4 * i + 3] = Math.max(segments[4 * i + 1], segments[4 * i + 3]);
+            englober(boites, i, gauche[i]);
+            englober(boites, i, droit[i]);
+        }
+
+        String[] nomsTextures = new String[indexTextures.size()];
+        indexTextures.forEach((nom, i) -> nomsTextures[i] = nom);
+        return new ArbreBSPPlat(nbNoeuds, profondeur, segments, boites, gauche, droit, texture, nomsTextures);
+    }
+
+    private static void englober(double[] boites, int i, int enfant) {
+        if (enfant < 0) return;
+        boites[4 * i] = Math.min(boites[4 * i], boites[4 * enfant]);
+        boites[4 * i + 1] = Math.min(boites[4 * i + 1], boites[4 * enfant + 1]);
+        boites[4 * i + 2] = Math.max(boites[4 * i + 2], boites[4 * enfant + 2]);
+        boites[4 * i + 3] = Math.max(boites[4 * i + 3], boites[4 * enfant + 3]);
+    }
+
+    /**
+     * Vrai si le point est du côté gauche du diviseur du noeud (ou sur sa droite support,
+     * comme les murs colinéaires rangés à gauche par ArbreBSP)
+     */
+    boolean estAGauche(int noeud, double x, double y) {
+        int s = 4 * noeud;
+        double dx = segments[s + 2] - segments[s];
+        double dy = segments[s + 3] - segments[s + 1];
+        return dx * (y - segments[s + 1]) - dy * (x - segments[s]) >= 0;
+    }
+
+    /**
+     * Feuille (région convexe vide de l'arbre) contenant le point : 2 * noeud pour le côté gauche
+     * du dernier noeud traversé, 2 * noeud + 1 pour son côté droit ; -1 si l'arbre est vide.
+     * Coût proportionnel à la profondeur de l'arbre.
+     */
+    public int localiser(double x, double y) {
+        if (nbNoeuds == 0) return -1;
+        int noeud = 0;
+        while (true) {
+            boolean aGauche = estAGauche(noeud, x, y);
+            int enfant = aGauche ? gauche[noeud] : droit[noeud];
+            if (enfant < 0) return 2 * noeud + (aGauche ? 0 : 1);
+            noeud = enfant;
+        }
+    }
+
+    /**
+     * Range dans ordre (au moins getNbNoeuds() cases) les index de tous les noeuds, du plus proche
+     * au plus lointain vu depuis le point, et renvoie leur nombre
+     */
+    public int ordreAvantArriere(double x, double y, int[] ordre) {
+        if (nbNoeuds == 0) return 0;
+        // ~noeud sur la pile : mur du noeud à émettre ; noeud : sous-arbre à visiter
+        int[] pile = new int[2 * profondeur + 1];
+        int taille = 0;
+        int nb = 0;
+        pile[taille++] = 0;
+        while (taille > 0) {
+            int element = pile[--taille];
+            if (element < 0) {
+                ordre[nb++] = ~element;
+                continue;
+            }
+            boolean aGauche = estAGauche(element, x, y);
+            int devant = aGauche ? gauche[element] : droit[element];
+            int derriere = aGauche ? droit[element] : gauche[element];
+            if (derriere >= 0) pile[taille++] = derriere;
+            pile[taille++] = ~element;
+            if (devant >= 0) pile[taille++] = devant;
+        }
+        return nb;
+    }
+
+    /**
+     * Premier mur touché par le segment (x0, y0) -> (x1, y1) : fraction du segment au point de contact
+     * (0 au départ, 1 à l'arrivée), Double.POSITIVE_INFINITY si rien ne le coupe.
+     * Parcours avant-arrière depuis le départ, limité aux demi-plans que le segment traverse : le premier
+     * mur touché dans cet ordre est le plus proche, la recherche s'arrête là. Un mur colinéaire au
+     * segment ne l'arrête pas.
+     */
+    public double intersecterSegment(double x0, double y0, double x1, double y1) {
+        if (nbNoeuds == 0) return Double.POSITIVE_INFINITY;
+        double minX = Math.min(x0, x1);
+        double minY = Math.min(y0, y1);
+        double maxX = Math.max(x0, x1);
+        double maxY = Math.max(y0, y1);
+        int[] pile = new int[2 * profondeur + 1];
+        int taille = 0;
+        pile[taille++] = 0;
+        while (taille > 0) {
+            int element = pile[--taille];
+            if (element < 0) {
+                double t = intersection(~element, x0, y0, x1, y1);
+                if (t != Double.POSITIVE_INFINITY) return t;
+                continue;
+            }
+            if (!boiteTouche(element, minX, minY, maxX, maxY, 0)) continue;
+
+            double cote0 = cote(element, x0, y0);
+            double cote1 = cote(element, x1, y1);
+            if (cote0 > 0 && cote1 > 0) {
+                if (gauche[element] >= 0) pile[taille++] = gauche[element];
+            } else if (cote0 < 0 && cote1 < 0) {
+                if (droit[element] >= 0) pile[taille++] = droit[element];
+            } else {
+                // le segment traverse la droite du diviseur : côté du départ, mur, puis l'autre côté
+                boolean departAGauche = cote0 > 0 || (cote0 == 0 && cote1 < 0);
+                int devant = departAGauche ? gauche[element] : droit[element];
+                int derriere = departAGauche ? droit[element] : gauche[element];
+                if (derriere >= 0) pile[taille++] = derriere;
+                pile[taille++] = ~element;
+                if (devant >= 0) pile[taille++] = devant;
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /** Vrai si aucun mur ne coupe le segment entre les deux points */
+    public boolean ligneDeVue(double x0, double y0, double x1, double y1) {
+        return intersecterSegment(x0, y0, x1, y1) == Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Déplacement d'un cercle de centre (x, y) de (dx, dy) : fraction du déplacement (0 à 1) avant
+     * le premier contact avec un mur, 1 si le déplacement est libre. Un cercle qui chevauche déjà
+     * un mur est bloqué (0) s'il s'en rapproche et libre s'il s'en éloigne, pour ne jamais rester coincé.
+     * Seuls les sous-arbres dont la boîte touche la zone balayée (élargie du rayon) sont examinés.
+     */
+    public double balayerCercle(double x, double y, double dx, double dy, double rayon) {
+        if (nbNoeuds == 0) return 1;
+        double minX = Math.min(x, x + dx);
+        double minY = Math.min(y, y + dy);
+        double maxX = Math.max(x, x + dx);
+        double maxY = Math.max(y, y + dy);
+        double premier = 1;
+        int[] pile = new int[profondeur + 1];
+        int taille = 0;
+        pile[taille++] = 0;
+        while (taille > 0) {
+            int noeud = pile[--taille];
+            if (!boiteTouche(noeud, minX, minY, maxX, maxY, rayon)) continue;
+
+            // distances signées des deux positions à la droite du diviseur
+            double longueur = longueur(noeud);
+            double distance0 = cote(noeud, x, y) / longueur;
+            double distance1 = cote(noeud, x + dx, y + dy) / longueur;
+            if (Math.min(distance0, distance1) > rayon) {
+                if (gauche[noeud] >= 0) pile[taille++] = gauche[noeud];
+            } else if (Math.max(distance0, distance1) < -rayon) {
+                if (droit[noeud] >= 0) pile[taille++] = droit[noeud];
+            } else {
+                premier = Math.min(premier, contactCercle(noeud, x, y, dx, dy, rayon));
+                if (droit[noeud] >= 0) pile[taille++] = droit[noeud];
+                if (gauche[noeud] >= 0) pile[taille++] = gauche[noeud];
+            }
+        }
+        return premier;
+    }
+
+    /** Produit vectoriel (diviseur, point) : > 0 à gauche, < 0 à droite, proportionnel à la distance */
+    private double cote(int noeud, double x, double y) {
+        int s = 4 * noeud;
+        return (segments[s + 2] - segments[s]) * (y - segments[s + 1]) - (segments[s + 3] - segments[s + 1]) * (x - segments[s]);
+    }
+
+    private double longueur(int noeud) {
+        int s = 4 * noeud;
+        return Math.max(1e-12, Math.hypot(segments[s + 2] - segments[s], segments[s + 3] - segments[s + 1]));
+    }
+
+    private boolean boiteTouche(int noeud, double minX, double minY, double maxX, double maxY, double marge) {
+        int b = 4 * noeud;
+        return boites[b] <= maxX + marge && boites[b + 2] >= minX - marge
+                && boites[b + 1] <= maxY + marge && boites[b + 3] >= minY - marge;
+    }
+
+    /**
+     * Fraction du segment (x0, y0) -> (x1, y1) au point où il coupe le mur du noeud, infini sinon
+     */
+    private double intersection(int noeud, double x0, double y0, double x1, double y1) {
+        int s = 4 * noeud;
+        double ax = segments[s];
+        double ay = segments[s + 1];
+        double ex = segments[s + 2] - ax;
+        double ey = segments[s + 3] - ay;
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double denominateur = dx * ey - dy * ex;
+        if (denominateur == 0) return Double.POSITIVE_INFINITY; // parallèles
+        double wx = ax - x0;
+        double wy = ay - y0;
+        double t = (wx * ey - wy * ex) / denominateur;
+        double u = (wx * dy - wy * dx) / denominateur;
+        return t >= 0 && t <= 1 && u >= 0 && u <= 1 ? t : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Première fraction du déplacement où le cercle touche le mur du noeud (1 si jamais) : contact
+     * avec l'un des deux bords du mur élargi du rayon, ou avec le cercle autour d'une extrémité
+     */
+    private double contactCercle(int noeud, double x, double y, double dx, double dy, double rayon) {
+        int s = 4 * noeud;
+        double ax = segments[s];
+        double ay = segments[s + 1];
+        double ex = segments[s + 2] - ax;
+        double ey = segments[s + 3] - ay;
+        double longueur2 = ex * ex + ey * ey;
+
+        // déjà en contact : bloqué seulement si le déplacement rapproche du point le plus proche
+        double proj = longueur2 > 0 ? Math.max(0, Math.min(1, ((x - ax) * ex + (y - ay) * ey) / longueur2)) : 0;
+        double px = x - (ax + proj * ex);
+        double py = y - (ay + proj * ey);
+        if (px * px + py * py < rayon * rayon) {
+            return px * dx + py * dy < 0 ? 0 : 1;
+        }
+
+        double premier = 1;
+        if (longueur2 > 0) {
+            double longueur = Math.sqrt(longueur2);
+            double nx = -ey / longueur;
+            double ny = ex / longueur;
+            double distance = (x - ax) * nx + (y - ay) * ny;
+            double vitesse = dx * nx + dy * ny;
+            if (distance * vitesse < 0) {
+                // bord du côté où se trouve le cercle
+                double t = (Math.abs(distance) - rayon) / Math.abs(vitesse);
+                double cx = x + t * dx - ax;
+                double cy = y + t * dy - ay;
+                double u = (cx * ex + cy * ey) / longueur2;
+                if (t >= 0 && t < premier && u >= 0 && u <= 1) premier = t;
+            }
+        }
+        premier = Math.min(premier, contactPoint(ax, ay, x, y, dx, dy, rayon));
+        premier = Math.min(premier, contactPoint(ax + ex, ay + ey, x, y, dx, dy, rayon));
+        return premier;
+    }
+
+    /** Première fraction du déplacement où le centre arrive à la distance rayon du point (1 si jamais) */
+    private static double contactPoint(double px, double py, double x, double y, double dx, double dy, double rayon) {
+        double fx = x - px;
+        double fy = y - py;
+        double a = dx * dx + dy * dy;
+        if (a == 0) return 1;
+        double b = fx * dx + fy * dy;
+        double c = fx * fx + fy * fy - rayon * rayon;
+        double discriminant = b * b - a * c;
+        if (b >= 0 || discriminant < 0) return 1; // s'éloigne ou passe à côté
+        double t = (-b - Math.sqrt(discriminant)) / a;
+        return t >= 0 && t < 1 ? t : 1;
+    }
+
+    public int getNbNoeuds() { return nbNoeuds; }
+
+    /** Profondeur de l'arbre (1 pour une racine seule, 0 si vide) */
+    public int getProfondeur() { return profondeur; }
+
+    /** Mur diviseur du noeud, recréé à partir des tableaux */
+    public Mur getMur(int noeud) {
+        int s = 4 * noeud;
+        return new Mur(segments[s], segments[s + 1], segments[s + 2], segments[s + 3], nomsTextures[texture[noeud]]);
+    }
+
+    public int getGauche(int noeud) { return gauche[noeud]; }
+
+    public int getDroit(int noeud) { return droit[noeud]; }
+}
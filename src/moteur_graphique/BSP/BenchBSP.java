@@ -0,0 +1,285 @@
+package moteur_graphique.BSP;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Micro-benchmarks du BSP, lancés à la main (pas de framework de bench dans le projet).
+ * Chaque scénario affiche le temps moyen par frame ou par opération.
+ */
+public class BenchBSP {
+
+    private static final int FRAMES_CHAUFFE = 200;
+    private static final int FRAMES_MESURE = 300;
+
+    public static void main(String[] args) {
+        System.out.println("=== Rendu BSP : salle fermée entourée de N murs invisibles ===");
+        benchRenduOcclusion();
+
+        System.out.println("\n=== Construction : premier mur vs diviseur au meilleur coût ===");
+        benchPartition();
+
+        System.out.println("\n=== Construction séquentielle vs fork/join (" + Runtime.getRuntime().availableProcessors() + " coeur(s)) ===");
+        benchConstructionParallele();
+
+        System.out.println("\n=== Parcours : arbre d'objets NoeudBSP vs tableaux ArbreBSPPlat ===");
+        benchArbrePlat();
+
+        System.out.println("\n=== Requêtes (densité de murs constante) : localisation, ligne de vue, cercle en mouvement ===");
+        benchRequetes();
+    }
+
+    private static void benchRenduOcclusion() {
+        int largeur = 1920;
+        int hauteur = 1080;
+        int[] ecran = new int[largeur * hauteur];
+        for (int nbMurs : new int[]{0, 1_000, 10_000}) {
+            NoeudBSP racine = new ArbreBSP().construireBSP(new MapMur(creerSalleEncombree(nbMurs, 7)));
+            RenduBSP rendu = new RenduBSP(racine, null);
+            double angle = 0;
+            for (int i = 0; i < FRAMES_CHAUFFE; i++) {
+                rendu.renderFrame(ecran, largeur, hauteur, 3.5, 6.2, angle += 0.01);
+            }
+            long noeuds = 0;
+            long debut = System.nanoTime();
+            for (int i = 0; i < FRAMES_MESURE; i++) {
+                rendu.renderFrame(ecran, largeur, hauteur, 3.5, 6.2, angle += 0.01);
+                noeuds += rendu.getNoeudsVisites();
+            }
+            double ms = (System.nanoTime() - debut) / 1_000_000.0 / FRAMES_MESURE;
+            System.out.printf("%6d murs autour : %.3f ms/frame, %.1f noeuds visités/frame%n",
+                    nbMurs, ms, (double) noeuds / FRAMES_MESURE);
+        }
+    }
+
+    private static void benchPartition() {
+        for (int nbMurs : new int[]{1_000, 5_000}) {
+            Mur[] murs = creerLabyrinthe(nbMurs, 13);
+            for (int candidats : new int[]{1, 8, 24}) {
+                ArbreBSP arbre = new ArbreBSP();
+                arbre.setCandidatsMax(candidats);
+                for (int i = 0; i < 3; i++) {
+                    arbre.construireBSP(new MapMur(murs)); // chauffe
+                }
+                NoeudBSP racine = arbre.construireBSP(new MapMur(murs));
+                System.out.printf("%5d murs, %2d candidat(s) : %.1f ms, %d noeuds, profondeur %d, %d coupes%n",
+                        nbMurs, candidats, arbre.getDureeConstructionMs(), arbre.getNbNoeuds(),
+                        arbre.getProfondeur(), arbre.getNbCoupes());
+                mesurerParcours(racine);
+            }
+        }
+    }
+
+    private static void benchConstructionParallele() {
+        for (int nbMurs : new int[]{20_000, 50_000}) {
+            Mur[] murs = creerLabyrinthe(nbMurs, 17);
+            for (boolean parallele : new boolean[]{false, true}) {
+                ArbreBSP arbre = new ArbreBSP();
+                arbre.setConstructionParallele(parallele);
+                double totalMs = 0;
+                for (int i = 0; i < 8; i++) {
+                    arbre.construireBSP(new MapMur(murs));
+                    if (i >= 3) totalMs += arbre.getDureeConstructionMs(); // 3 constructions de chauffe
+                }
+                System.out.printf("%6d murs, %s : %.1f ms (%d noeuds)%n", nbMurs,
+                        parallele ? "fork/join  " : "séquentielle", totalMs / 5, arbre.getNbNoeuds());
+            }
+        }
+    }
+
+    private static void benchArbrePlat() {
+        final int nbRequetes = 2_000_000;
+        final int nbParcours = 2_000;
+        for (int nbMurs : new int[]{5_000, 50_000}) {
+            NoeudBSP racine = new ArbreBSP().construireBSP(new MapMur(creerLabyrinthe(nbMurs, 19)));
+            ArbreBSPPlat plat = ArbreBSPPlat.depuisArbre(racine);
+            double[] points = new double[2 * 4096];
+            Random random = new Random(2);
+            for (int i = 0; i < points.length; i++) {
+                points[i] = random.nextDouble() * 100;
+            }
+
+            for (boolean tableaux : new boolean[]{false, true}) {
+                long somme = 0;
+                for (int passe = 0; passe < 2; passe++) { // la première passe sert de chauffe
+                    somme = 0;
+                    long debut = System.nanoTime();
+                    for (int i = 0; i < nbRequetes; i++) {
+                        int p = 2 * (i & 4095);
+                        somme += tableaux ? plat.localiser(points[p], points[p + 1])
+                                : (localiserObjets(racine, points[p], points[p + 1]) == racine ? 1 : 0);
+                    }
+                    if (passe == 1) {
+                        System.out.printf("%6d murs, localisation %s : %.1f ns/requête%n", nbMurs,
+                                tableaux ? "tableaux" : "objets  ", (System.nanoTime() - debut) / (double) nbRequetes);
+                    }
+                }
+                if (somme == 42) System.out.print(""); // résultat utilisé
+            }
+
+            int[] ordre = new int[plat.getNbNoeuds()];
+            Mur[] ordreMurs = new Mur[plat.getNbNoeuds()];
+            NoeudBSP[] pile = new NoeudBSP[2 * plat.getProfondeur() + 1];
+            boolean[] emettre = new boolean[pile.length];
+            for (boolean tableaux : new boolean[]{false, true}) {
+                for (int passe = 0; passe < 2; passe++) {
+                    long debut = System.nanoTime();
+                    for (int i = 0; i < nbParcours; i++) {
+                        int p = 2 * (i & 4095);
+                        if (tableaux) {
+                            plat.ordreAvantArriere(points[p], points[p + 1], ordre);
+                        } else {
+                            ordreAvantArriereObjets(racine, points[p], points[p + 1], ordreMurs, pile, emettre);
+                        }
+                    }
+                    if (passe == 1) {
+                        System.out.printf("%6d murs, parcours complet avant-arrière %s : %.3f ms%n", nbMurs,
+                                tableaux ? "tableaux" : "objets  ", (System.nanoTime() - debut) / 1_000_000.0 / nbParcours);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void benchRequetes() {
+        final int nbRequetes = 500_000;
+        for (int nbMurs : new int[]{1_000, 10_000, 100_000}) {
+            // 1 mur par 2 unités² : la géométrie autour de chaque requête ne dépend pas de la taille de la map
+            double cote = Math.sqrt(nbMurs * 2.0);
+            Random random = new Random(23);
+            Mur[] murs = new Mur[nbMurs];
+            for (int i = 0; i < nbMurs; i++) {
+                double x = random.nextDouble() * cote;
+                double y = random.nextDouble() * cote;
+                murs[i] = new Mur(x, y, x + random.nextDouble() * 2 - 1, y + random.nextDouble() * 2 - 1);
+            }
+            ArbreBSP arbre = new ArbreBSP();
+            arbre.construireBSP(new MapMur(murs));
+            ArbreBSPPlat plat = arbre.aplatir();
+            double[] points = new double[4 * 4096];
+            for (int i = 0; i < points.length; i += 4) {
+                points[i] = random.nextDouble() * cote;
+                points[i + 1] = random.nextDouble() * cote;
+                points[i + 2] = random.nextDouble() * 2 - 1; // déplacement ou direction du segment
+                points[i + 3] = random.nextDouble() * 2 - 1;
+            }
+
+            double[] nsParRequete = new double[3];
+            double somme = 0;
+            for (int requete = 0; requete < 3; requete++) {
+                for (int passe = 0; passe < 2; passe++) { // la première passe sert de chauffe
+                    long debut = System.nanoTime();
+                    for (int i = 0; i < nbRequetes; i++) {
+                        int p = 4 * (i & 4095);
+                        double x = points[p];
+                        double y = points[p + 1];
+                        if (requete == 0) {
+                            somme += plat.localiser(x, y);
+                        } else if (requete == 1) {
+                            somme += plat.ligneDeVue(x, y, x + 4 * points[p + 2], y + 4 * points[p + 3]) ? 1 : 0;
+                        } else {
+                            somme += plat.balayerCercle(x, y, 0.2 * points[p + 2], 0.2 * points[p + 3], 0.3);
+                        }
+                    }
+                    nsParRequete[requete] = (System.nanoTime() - debut) / (double) nbRequetes;
+                }
+            }
+            System.out.printf("%7d murs (profondeur %d) : localisation %.0f ns, ligne de vue %.0f ns, cercle %.0f ns%s%n",
+                    nbMurs, plat.getProfondeur(), nsParRequete[0], nsParRequete[1], nsParRequete[2], somme == 0.5 ? " " : "");
+        }
+    }
+
+    /** Référence : descente de l'arbre d'objets jusqu'au dernier noeud traversé */
+    private static NoeudBSP localiserObjets(NoeudBSP noeud, double x, double y) {
+        while (true) {
+            Mur mur = noeud.mur;
+            boolean aGauche = (mur.x1 - mur.x0) * (y - mur.y0) - (mur.y1 - mur.y0) * (x - mur.x0) >= 0;
+            NoeudBSP enfant = aGauche ? noeud.gauche : noeud.droit;
+            if (enfant == null) return noeud;
+            noeud = enfant;
+        }
+    }
+
+    /** Référence : ordre avant-arrière sur l'arbre d'objets (emettre[i] : mur du noeud à émettre, sinon sous-arbre) */
+    private static int ordreAvantArriereObjets(NoeudBSP racine, double x, double y, Mur[] ordre,
+                                               NoeudBSP[] pile, boolean[] emettre) {
+        int taille = 0;
+        int nb = 0;
+        pile[taille] = racine;
+        emettre[taille++] = false;
+        while (taille > 0) {
+            NoeudBSP noeud = pile[--taille];
+            if (emettre[taille]) {
+                ordre[nb++] = noeud.mur;
+                continue;
+            }
+            Mur mur = noeud.mur;
+            boolean aGauche = (mur.x1 - mur.x0) * (y - mur.y0) - (mur.y1 - mur.y0) * (x - mur.x0) >= 0;
+            NoeudBSP devant = aGauche ? noeud.gauche : noeud.droit;
+            NoeudBSP derriere = aGauche ? noeud.droit : noeud.gauche;
+            if (derriere != null) {
+                pile[taille] = derriere;
+                emettre[taille++] = false;
+            }
+            pile[taille] = noeud;
+            emettre[taille++] = true;
+            if (devant != null) {
+                pile[taille] = devant;
+                emettre[taille++] = false;
+            }
+        }
+        return nb;
+    }
+
+    private static void mesurerParcours(NoeudBSP racine) {
+        int largeur = 1280;
+        int hauteur = 720;
+        int[] ecran = new int[largeur * hauteur];
+        RenduBSP rendu = new RenduBSP(racine, null);
+        Random random = new Random(1);
+        long noeuds = 0;
+        long debut = System.nanoTime();
+        for (int i = 0; i < FRAMES_MESURE; i++) {
+            rendu.renderFrame(ecran, largeur, hauteur, random.nextDouble() * 100, random.nextDouble() * 100,
+                    random.nextDouble() * 2 * Math.PI);
+            noeuds += rendu.getNoeudsVisites();
+        }
+        double ms = (System.nanoTime() - debut) / 1_000_000.0 / FRAMES_MESURE;
+        System.out.printf("        rendu depuis des positions aléatoires : %.3f ms/frame, %.1f noeuds visités/frame%n",
+                ms, (double) noeuds / FRAMES_MESURE);
+    }
+
+    /**
+     * Murs axiaux de longueur 1 à 5 sur une grille de 100x100 (pièces et couloirs), dans un ordre aléatoire
+     */
+    static Mur[] creerLabyrinthe(int nbMurs, long graine) {
+        Random random = new Random(graine);
+        Mur[] murs = new Mur[nbMurs];
+        for (int i = 0; i < nbMurs; i++) {
+            int x = random.nextInt(100);
+            int y = random.nextInt(100);
+            int longueur = 1 + random.nextInt(5);
+            murs[i] = random.nextBoolean() ? new Mur(x, y, x + longueur, y) : new Mur(x, y, x, y + longueur);
+        }
+        return murs;
+    }
+
+    /**
+     * Salle 10x10 (ses murs en premier) et petits murs aléatoires tout autour, hors de la salle
+     */
+    static Mur[] creerSalleEncombree(int nbMurs, long graine) {
+        List<Mur> murs = new ArrayList<>(List.of(
+                new Mur(0, 0, 10, 0),
+                new Mur(10, 0, 10, 10),
+                new Mur(10, 10, 0, 10),
+                new Mur(0, 10, 0, 0)));
+        Random random = new Random(graine);
+        for (int i = 0; i < nbMurs; i++) {
+            double x = -50 + random.nextDouble() * 110;
+            double y = random.nextBoolean() ? -50 + random.nextDouble() * 45 : 15 + random.nextDouble() * 45;
+            murs.add(new Mur(x, y, x + random.nextDouble() - 0.5, y + random.nextDouble() - 0.5));
+        }
+        return murs.toArray(new Mur[0]);
+    }
+}
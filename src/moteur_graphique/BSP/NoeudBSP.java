@@ -9,7 +9,21 @@ public class NoeudBSP {
         this.mur = mur;
     }
 
+    public NoeudBSP(Mur mur, NoeudBSP gauche, NoeudBSP droit) {
+        this.mur = mur;
+        this.gauche = gauche;
+        this.droit = droit;
+    }
+
     public Mur getMurDiviseur() {
         return mur;
     }
+
+    public NoeudBSP getGauche() {
+        return gauche;
+    }
+
+    public NoeudBSP getDroit() {
+        return droit;
+    }
 }
@@ -0,0 +1,396 @@
+package moteur_graphique.BSP;
+
+import entite.Joueur;
+import moteur_graphique.CacheAssets;
+import moteur_graphique.FrameRenderer;
+import moteur_graphique.GameRenderer;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Rendu d'une map de murs (MapMur) à partir de son arbre BSP, parcouru dans sa forme aplatie (ArbreBSPPlat).
+ * <p>
+ * L'arbre est parcouru d'avant en arrière depuis la caméra : à chaque noeud, le côté du mur
+ * diviseur où se trouve la caméra d'abord, puis le mur lui-même, puis l'autre côté. Le premier
+ * mur qui touche une colonne est donc le plus proche : la colonne devient pleine et n'est plus
+ * jamais redessinée (murs opaques de hauteur fixe). Un sous-arbre dont la boîte englobante est
+ * derrière la caméra, hors de l'écran ou ne couvre que des colonnes pleines est sauté en entier,
+ * et le parcours s'arrête dès que tout l'écran est plein : le coût suit la géométrie visible,
+ * pas le nombre total de murs.
+ * <p>
+ * Projection (comme rendreMur de PrototypeRenduMur) : passage en repère caméra, découpage au plan
+ * proche, projection perspective, puis interpolation de 1/z et u/z le long des colonnes.
+ * Mêmes conventions que le raycasting : direction (cos angle, sin angle), murs de 1 unité de haut.
+ */
+public class RenduBSP implements GameRenderer, FrameRenderer {
+
+    private static final Logger LOGGER = Logger.getLogger(RenduBSP.class.getName());
+    private static final String DOSSIER_TEXTURES = "assets/textures/";
+
+    private static final int FOV = 60;
+    private static final double PLAN_PROCHE = 0.01;
+    private static final double DISTANCE_OMBRE = 20.0; // distance à laquelle les murs sans texture sont le plus sombres
+
+    private static final int SKY_COLOR = new Color(135, 206, 235).getRGB();
+    private static final int FLOOR_COLOR = new Color(105, 105, 105).getRGB();
+    private static final int WALL_COLOR = new Color(200, 100, 0).getRGB();
+
+    private final ArbreBSPPlat arbre;
+    private final Joueur joueur;
+    private int fovDegres = FOV;
+    private double hauteurMurs = 1.0;
+
+    // Textures des murs par index de texture de l'arbre, colonne par colonne (null : couleur unie ombrée)
+    private final TextureMur[] textures;
+
+    private static final class TextureMur {
+        final int[] colonnes;
+        final int largeur;
+        final int hauteur;
+
+        TextureMur(BufferedImage image) {
+            largeur = image.getWidth();
+            hauteur = image.getHeight();
+            int[] lignes = image.getRGB(0, 0, largeur, hauteur, null, 0, largeur);
+            colonnes = new int[largeur * hauteur];
+            for (int x = 0; x < largeur; x++) {
+                for (int y = 0; y < hauteur; y++) {
+                    colonnes[x * hauteur + y] = lignes[y * largeur + x];
+                }
+            }
+        }
+    }
+
+    // Occlusion : prochaineLibre[c] mène (par chaînage) à la première colonne libre >= c ; [largeur] = sentinelle
+    private int[] prochaineLibre = new int[0];
+    private int nbColonnesPleines;
+
+    // Pile du parcours (pas de récursion : un arbre mal équilibré peut avoir des milliers de niveaux)
+    // noeud : sous-arbre à visiter, ~noeud : mur du noeud à dessiner
+    private final int[] pile;
+
+    // Frame en cours
+    private int[] screenPixels;
+    private int largeurEcran;
+    private int hauteurEcran;
+    private double camX, camY, dirX, dirY, echelle;
+    private final double[] coinsZ = new double[4];
+    private final double[] coinsL = new double[4];
+
+    // Statistiques de la dernière frame
+    private int noeudsVisites;
+    private int mursDessines;
+
+    // Buffer de rendu (utilisé par render(Graphics) ; renderFrame écrit dans le buffer de l'appelant)
+    private BufferedImage screenBuffer;
+    private int[] screenBufferPixels;
+
+    public RenduBSP(NoeudBSP racine, Joueur joueur) {
+        this(ArbreBSPPlat.depuisArbre(racine), joueur);
+    }
+
+    public RenduBSP(ArbreBSPPlat arbre, Joueur joueur) {
+        this.arbre = arbre;
+        this.joueur = joueur;
+        this.pile = new int[2 * arbre.getProfondeur() + 1];
+        this.textures = new TextureMur[arbre.nomsTextures.length];
+        for (int i = 0; i < textures.length; i++) {
+            textures[i] = chargerTexture(arbre.nomsTextures[i]);
+        }
+    }
+
+    private static TextureMur chargerTexture(String nom) {
+        if (nom.isEmpty()) return null;
+        String chemin = DOSSIER_TEXTURES + nom;
+        if (!new File(chemin).exists()) {
+            LOGGER.log(Level.FINE, "Texture de mur absente: {0} - couleur par défaut", chemin);
+            return null;
+        }
+        try {
+            // épinglée dans le cache partagé, comme la texture du raycasting
+            return new TextureMur(CacheAssets.getPartage().precharger(chemin).join());
+        } catch (CompletionException e) {
+            LOGGER.log(Level.WARNING, "Texture de mur illisible: {0}", chemin);
+            return null;
+        }
+    }
+
+    @Override
+    public void render(Graphics g, int screenWidth, int screenHeight) {
+        if (screenWidth <= 0 || screenHeight <= 0) return;
+        if (screenBuffer == null || screenBuffer.getWidth() != screenWidth || screenBuffer.getHeight() != screenHeight) {
+            screenBuffer = new BufferedImage(screenWidth, screenHeight, BufferedImage.TYPE_INT_ARGB);
+            screenBufferPixels = ((DataBufferInt) screenBuffer.getRaster().getDataBuffer()).getData();
+        }
+        renderFrame(screenBufferPixels, screenWidth, screenHeight, joueur.getX(), joueur.getY(), joueur.getAngle());
+        g.drawImage(screenBuffer, 0, 0, null);
+    }
+
+    /**
+     * Calcul de la frame dans le framebuffer fourni. Aucune allocation une fois les buffers
+     * de travail dimensionnés.
+     */
+    @Override
+    public void renderFrame(int[] framebuffer, int screenWidth, int screenHeight,
+                            double cameraX, double cameraY, double cameraAngle) {
+        if (screenWidth <= 0 || screenHeight <= 0) return;
+        if (framebuffer.length < screenWidth * screenHeight) {
+            throw new IllegalArgumentException("Framebuffer trop petit: " + framebuffer.length
+                    + " pixels pour " + screenWidth + "x" + screenHeight);
+        }
+        screenPixels = framebuffer;
+        largeurEcran = screenWidth;
+        hauteurEcran = screenHeight;
+        camX = cameraX;
+        camY = cameraY;
+        dirX = Math.cos(cameraAngle);
+        dirY = Math.sin(cameraAngle);
+        echelle = (screenWidth / 2.0) / Math.tan(Math.toRadians(fovDegres) / 2);
+
+        if (prochaineLibre.length != screenWidth + 1) {
+            prochaineLibre = new int[screenWidth + 1];
+        }
+        for (int c = 0; c <= screenWidth; c++) {
+            prochaineLibre[c] = c;
+        }
+        nbColonnesPleines = 0;
+        noeudsVisites = 0;
+        mursDessines = 0;
+
+        parcourirAvantArriere();
+
+        // colonnes qu'aucun mur n'a touchées : ciel et sol seuls
+        for (int c = colonneLibre(0); c < screenWidth; c = colonneLibre(c + 1)) {
+            dessinerFond(c);
+        }
+    }
+
+    private void parcourirAvantArriere() {
+        if (arbre.nbNoeuds == 0) return;
+        int[] gauche = arbre.gauche;
+        int[] droit = arbre.droit;
+        int taille = 0;
+        pile[taille++] = 0;
+        while (taille > 0 && nbColonnesPleines < largeurEcran) {
+            int noeud = pile[--taille];
+            if (noeud < 0) {
+                dessinerMur(~noeud);
+                continue;
+            }
+            noeudsVisites++;
+            if (!boiteVisible(noeud)) continue;
+
+            boolean aGauche = arbre.estAGauche(noeud, camX, camY);
+            int devant = aGauche ? gauche[noeud] : droit[noeud];
+            int derriere = aGauche ? droit[noeud] : gauche[noeud];
+            // empilés à l'envers : devant, puis le mur, puis derrière
+            if (derriere >= 0) pile[taille++] = derriere;
+            pile[taille++] = ~noeud;
+            if (devant >= 0) pile[taille++] = devant;
+        }
+    }
+
+    /**
+     * Faux si la boîte englobante du sous-arbre ne peut rien dessiner : entièrement derrière
+     * le plan proche, hors de l'écran, ou projetée uniquement sur des colonnes déjà pleines
+     */
+    private boolean boiteVisible(int noeud) {
+        double[] boites = arbre.boites;
+        double minX = boites[4 * noeud];
+        double minY = boites[4 * noeud + 1];
+        double maxX = boites[4 * noeud + 2];
+        double maxY = boites[4 * noeud + 3];
+        if (camX >= minX && camX <= maxX && camY >= minY && camY <= maxY) {
+            return true;
+        }
+        // coins dans l'ordre du contour, en repère caméra
+        int devant = 0;
+        for (int coin = 0; coin < 4; coin++) {
+            double dx = (coin == 1 || coin == 2 ? maxX : minX) - camX;
+            double dy = (coin >= 2 ? maxY : minY) - camY;
+            coinsZ[coin] = dx * dirX + dy * dirY;
+            coinsL[coin] = -dx * dirY + dy * dirX;
+            if (coinsZ[coin] >= PLAN_PROCHE) devant++;
+        }
+        if (devant == 0) return false;
+
+        // étendue à l'écran du contour découpé au plan proche : coins devant et points de coupe des côtés
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int coin = 0; coin < 4; coin++) {
+            double z = coinsZ[coin];
+            double l = coinsL[coin];
+            if (z >= PLAN_PROCHE) {
+                double sx = l / z;
+                min = Math.min(min, sx);
+                max = Math.max(max, sx);
+            }
+            int suivant = (coin + 1) & 3;
+            if ((z >= PLAN_PROCHE) != (coinsZ[suivant] >= PLAN_PROCHE)) {
+                double t = (PLAN_PROCHE - z) / (coinsZ[suivant] - z);
+                double sx = (l + t * (coinsL[suivant] - l)) / PLAN_PROCHE;
+                min = Math.min(min, sx);
+                max = Math.max(max, sx);
+            }
+        }
+        double centre = largeurEcran / 2.0;
+        int debut = (int) Math.max(0, Math.ceil(centre + min * echelle - 0.5));
+        int fin = (int) Math.min(largeurEcran - 1, Math.ceil(centre + max * echelle - 0.5) - 1);
+        return debut <= fin && colonneLibre(debut) <= fin;
+    }
+
+    private void dessinerMur(int noeud) {
+        double[] segments = arbre.segments;
+        int s = 4 * noeud;
+        double dx0 = segments[s] - camX;
+        double dy0 = segments[s + 1] - camY;
+        double dx1 = segments[s + 2] - camX;
+        double dy1 = segments[s + 3] - camY;
+        // repère caméra : z vers l'avant, l vers la droite de l'écran
+        double z0 = dx0 * dirX + dy0 * dirY;
+        double l0 = -dx0 * dirY + dy0 * dirX;
+        double z1 = dx1 * dirX + dy1 * dirY;
+        double l1 = -dx1 * dirY + dy1 * dirX;
+        double u0 = 0;
+        double u1 = Math.hypot(dx1 - dx0, dy1 - dy0);
+
+        if (z0 < PLAN_PROCHE && z1 < PLAN_PROCHE) return;
+        // découpage au plan proche (l et u suivent z le long du mur)
+        if (z0 < PLAN_PROCHE) {
+            double t = (PLAN_PROCHE - z0) / (z1 - z0);
+            l0 += t * (l1 - l0);
+            u0 += t * (u1 - u0);
+            z0 = PLAN_PROCHE;
+        } else if (z1 < PLAN_PROCHE) {
+            double t = (PLAN_PROCHE - z1) / (z0 - z1);
+            l1 += t * (l0 - l1);
+            u1 += t * (u0 - u1);
+            z1 = PLAN_PROCHE;
+        }
+
+        double sx0 = largeurEcran / 2.0 + l0 / z0 * echelle;
+        double sx1 = largeurEcran / 2.0 + l1 / z1 * echelle;
+        if (sx0 > sx1) {
+            double tmp = sx0;
+            sx0 = sx1;
+            sx1 = tmp;
+            tmp = z0;
+            z0 = z1;
+            z1 = tmp;
+            tmp = u0;
+            u0 = u1;
+            u1 = tmp;
+        }
+        // colonnes dont le centre est dans [sx0, sx1[
+        int debut = Math.max(0, (int) Math.ceil(sx0 - 0.5));
+        int fin = Math.min(largeurEcran - 1, (int) Math.ceil(sx1 - 0.5) - 1);
+        if (debut > fin) return;
+
+        int c = colonneLibre(debut);
+        if (c > fin) return;
+        mursDessines++;
+
+        // 1/z et u/z varient linéairement à l'écran (perspective)
+        double invZ0 = 1.0 / z0;
+        double pasInvZ = (1.0 / z1 - invZ0) / (sx1 - sx0);
+        double uSurZ0 = u0 * invZ0;
+        double pasUSurZ = (u1 / z1 - uSurZ0) / (sx1 - sx0);
+        TextureMur texture = textures[arbre.texture[noeud]];
+
+        while (c <= fin) {
+            double decalage = c + 0.5 - sx0;
+            double invZ = invZ0 + pasInvZ * decalage;
+            double u = (uSurZ0 + pasUSurZ * decalage) / invZ;
+            dessinerColonne(c, 1.0 / invZ, u, texture);
+            prochaineLibre[c] = c + 1;
+            nbColonnesPleines++;
+            c = colonneLibre(c + 1);
+        }
+    }
+
+    /**
+     * Première colonne libre >= c (largeurEcran si aucune), avec compression des chemins
+     */
+    private int colonneLibre(int c) {
+        int libre = c;
+        while (prochaineLibre[libre] != libre) {
+            libre = prochaineLibre[libre];
+        }
+        while (prochaineLibre[c] != libre) {
+            int suivante = prochaineLibre[c];
+            prochaineLibre[c] = libre;
+            c = suivante;
+        }
+        return libre;
+    }
+
+    private void dessinerColonne(int x, double z, double u, TextureMur texture) {
+        int lineHeight = (int) (hauteurEcran * hauteurMurs / z);
+        int drawStart = hauteurEcran / 2 - lineHeight / 2;
+        int yDebut = Math.max(0, drawStart);
+        int yFin = Math.min(hauteurEcran, drawStart + lineHeight);
+        int largeur = largeurEcran;
+        int index = x;
+        for (int y = 0; y < yDebut; y++, index += largeur) {
+            screenPixels[index] = SKY_COLOR;
+        }
+        if (texture != null) {
+            int texX = (int) ((u - Math.floor(u)) * texture.largeur);
+            int base = Math.min(texX, texture.largeur - 1) * texture.hauteur;
+            // 16.16 : un pas de texture par pixel d'écran
+            long pas = ((long) texture.hauteur << 16) / Math.max(1, lineHeight);
+            long pos = (yDebut - drawStart) * pas;
+            for (int y = yDebut; y < yFin; y++, index += largeur) {
+                screenPixels[index] = texture.colonnes[base + (int) Math.min(texture.hauteur - 1, pos >> 16)];
+                pos += pas;
+            }
+        } else {
+            int couleur = ombrer(WALL_COLOR, Math.max(0.3, 1.0 - z / DISTANCE_OMBRE));
+            for (int y = yDebut; y < yFin; y++, index += largeur) {
+                screenPixels[index] = couleur;
+            }
+        }
+        for (int y = Math.max(yFin, yDebut); y < hauteurEcran; y++, index += largeur) {
+            screenPixels[index] = FLOOR_COLOR;
+        }
+    }
+
+    private void dessinerFond(int x) {
+        int milieu = hauteurEcran / 2;
+        int index = x;
+        for (int y = 0; y < hauteurEcran; y++, index += largeurEcran) {
+            screenPixels[index] = y < milieu ? SKY_COLOR : FLOOR_COLOR;
+        }
+    }
+
+    private static int ombrer(int argb, double intensite) {
+        int r = (int) (((argb >> 16) & 0xFF) * intensite);
+        int g = (int) (((argb >> 8) & 0xFF) * intensite);
+        int b = (int) ((argb & 0xFF) * intensite);
+        return (argb & 0xFF000000) | (r << 16) | (g << 8) | b;
+    }
+
+    public void setFov(int fovDegres) {
+        if (fovDegres <= 0 || fovDegres >= 180) {
+            throw new IllegalArgumentException("FOV invalide: " + fovDegres + " (attendu entre 1 et 179 degrés)");
+        }
+        this.fovDegres = fovDegres;
+    }
+    public int getFov() { return fovDegres; }
+
+    /** Hauteur des murs en unités de la map (1 par défaut, comme une case du raycasting) */
+    public void setHauteurMurs(double hauteurMurs) { this.hauteurMurs = hauteurMurs; }
+    public double getHauteurMurs() { return hauteurMurs; }
+
+    /** Noeuds de l'arbre examinés pendant la dernière frame (sous-arbres sautés non comptés) */
+    public int getNoeudsVisites() { return noeudsVisites; }
+
+    /** Murs ayant rempli au moins une colonne pendant la dernière frame */
+    public int getMursDessines() { return mursDessines; }
+}
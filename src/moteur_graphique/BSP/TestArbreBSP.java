@@ -16,6 +16,8 @@ public class TestArbreBSP {
         System.out.println("\n=== 3. CONSTRUCTION ARBRE BSP ===");
         ArbreBSP bsp = new ArbreBSP();
         NoeudBSP racine = bsp.construireBSP(map);
+        System.out.printf("%d noeuds, profondeur %d, %d coupes, %.2f ms%n",
+                bsp.getNbNoeuds(), bsp.getProfondeur(), bsp.getNbCoupes(), bsp.getDureeConstructionMs());
 
         System.out.println("\n=== 4. AFFICHAGE DE L'ARBRE ===");
         if (racine != null) {
@@ -0,0 +1,153 @@
+package moteur_graphique;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache des images décodées (sprites, textures), indexé par chemin : un fichier n'est lu et décodé
+ * qu'une fois, tous les demandeurs reçoivent la même image (convertie en ARGB, pixels partagés :
+ * ne jamais dessiner dedans).
+ * <p>
+ * Durée de vie : chaque acquerir compte une référence, rendue par liberer ; une image sans référence
+ * est retirée du cache, sauf si elle a été préchargée (épinglée pour toute la partie).
+ * Le préchargement décode en arrière-plan : un acquerir ultérieur ne touche plus le disque.
+ */
+public final class CacheAssets {
+
+    private static final Logger LOGGER = Logger.getLogger(CacheAssets.class.getName());
+
+    private static final CacheAssets PARTAGE = new CacheAssets();
+
+    // Thread unique (démon) pour les décodages en arrière-plan
+    private static final ExecutorService CHARGEMENT = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "chargement-assets");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final class Entree {
+        final CompletableFuture<BufferedImage> image = new CompletableFuture<>();
+        final AtomicBoolean demarree = new AtomicBoolean();
+        int references;   // modifiés uniquement dans les compute de la map
+        boolean epinglee;
+    }
+
+    private final Map<String, Entree> entrees = new ConcurrentHashMap<>();
+    private final AtomicInteger lecturesDisque = new AtomicInteger();
+
+    /** Cache commun au jeu */
+    public static CacheAssets getPartage() {
+        return PARTAGE;
+    }
+
+    /**
+     * Lance le décodage en arrière-plan (s'il n'est pas déjà fait ou en cours) et épingle l'image.
+     * Le future échoue si le fichier est illisible ; l'échec est lui aussi gardé (pas de nouvel essai).
+     */
+    public CompletableFuture<BufferedImage> precharger(String chemin) {
+        Entree entree = entrees.compute(chemin, (cle, existante) -> {
+            Entree e = existante != null ? existante : new Entree();
+            e.epinglee = true;
+            return e;
+        });
+        if (entree.demarree.compareAndSet(false, true)) {
+            CHARGEMENT.execute(() -> lire(chemin, entree.image));
+        }
+        return entree.image;
+    }
+
+    /**
+     * Image partagée du chemin (une référence de plus, à rendre par liberer), null si illisible.
+     * Attend la fin d'un préchargement en cours ; lit le fichier sur le thread appelant sinon.
+     * Bloquant : depuis un thread qui ne doit pas attendre le disque (réseau, rendu), utiliser acquerirAsync.
+     */
+    public BufferedImage acquerir(String chemin) {
+        Entree entree = compterReference(chemin);
+        if (entree.demarree.compareAndSet(false, true)) {
+            lire(chemin, entree.image);
+        }
+        try {
+            return entree.image.join();
+        } catch (CompletionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Comme acquerir, sans jamais bloquer : le future est déjà complété si l'image est en cache, sinon
+     * la lecture part sur le thread de chargement. Il échoue si le fichier est illisible.
+     */
+    public CompletableFuture<BufferedImage> acquerirAsync(String chemin) {
+        Entree entree = compterReference(chemin);
+        if (entree.demarree.compareAndSet(false, true)) {
+            CHARGEMENT.execute(() -> lire(chemin, entree.image));
+        }
+        return entree.image;
+    }
+
+    private Entree compterReference(String chemin) {
+        return entrees.compute(chemin, (cle, existante) -> {
+            Entree e = existante != null ? existante : new Entree();
+            e.references++;
+            return e;
+        });
+    }
+
+    /**
+     * Rend une référence obtenue par acquerir : l'image quitte le cache à la dernière, sauf si elle est épinglée
+     */
+    public void liberer(String chemin) {
+        entrees.computeIfPresent(chemin, (cle, e) -> {
+            if (e.references > 0) e.references--;
+            return e.references == 0 && !e.epinglee ? null : e;
+        });
+    }
+
+    private void lire(String chemin, CompletableFuture<BufferedImage> image) {
+        lecturesDisque.incrementAndGet();
+        try {
+            BufferedImage lue = ImageIO.read(new File(chemin));
+            if (lue == null) {
+                throw new IOException("Format d'image non reconnu: " + chemin);
+            }
+            image.complete(versArgb(lue));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Image illisible: {0} ({1})", new Object[]{chemin, e.getMessage()});
+            image.completeExceptionally(e);
+        }
+    }
+
+    private static BufferedImage versArgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_ARGB) return image;
+        BufferedImage argb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = argb.createGraphics();
+        g2d.drawImage(image, 0, 0, null);
+        g2d.dispose();
+        return argb;
+    }
+
+    /** Nombre de fichiers lus depuis le disque (une fois par chemin tant qu'il reste en cache) */
+    public int getLecturesDisque() { return lecturesDisque.get(); }
+
+    /** Nombre d'images en cache (chargées, en cours de chargement ou en échec) */
+    public int getNbImages() { return entrees.size(); }
+
+    /** Références acquises et non rendues sur le chemin (0 s'il n'est pas en cache) */
+    public int getReferences(String chemin) {
+        Entree entree = entrees.get(chemin);
+        return entree != null ? entree.references : 0;
+    }
+}
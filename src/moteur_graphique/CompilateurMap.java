@@ -0,0 +1,35 @@
+package moteur_graphique;
+
+import java.nio.file.Path;
+
+/**
+ * Compile les maps texte en un paquet binaire chargé au démarrage sans parsing (voir PaquetMap).
+ * <p>
+ * Usage : CompilateurMap [map.txt] [mapBSP.txt] [sortie.paquet]
+ * (par défaut les maps de assets/maps vers assets/maps/map.paquet)
+ */
+public class CompilateurMap {
+
+    public static final String MAP_TEXTE = "assets/maps/map.txt";
+    public static final String MAP_BSP_TEXTE = "assets/maps/mapBSP.txt";
+    public static final String PAQUET = "assets/maps/map.paquet";
+
+    public static void main(String[] args) {
+        String mapTexte = args.length > 0 ? args[0] : MAP_TEXTE;
+        String mapBspTexte = args.length > 1 ? args[1] : MAP_BSP_TEXTE;
+        Path sortie = Path.of(args.length > 2 ? args[2] : PAQUET);
+
+        long debut = System.nanoTime();
+        PaquetMap paquet = PaquetMap.depuisTexte(mapTexte, mapBspTexte);
+        double msTexte = (System.nanoTime() - debut) / 1_000_000.0;
+        paquet.ecrire(sortie);
+
+        debut = System.nanoTime();
+        PaquetMap.charger(sortie);
+        double msPaquet = (System.nanoTime() - debut) / 1_000_000.0;
+
+        System.out.printf("Paquet écrit : %s (grille %dx%d, %d murs)%n", sortie,
+                paquet.getGrille().getWIDTH(), paquet.getGrille().getHeight(), paquet.getMapMur().getMurs().length);
+        System.out.printf("Chargement texte + construction BSP : %.2f ms, chargement du paquet : %.2f ms%n", msTexte, msPaquet);
+    }
+}
@@ -0,0 +1,35 @@
+package moteur_graphique;
+
+import java.awt.Graphics;
+
+/**
+ * Rendu "headless" : la scène est calculée dans un framebuffer fourni par l'appelant,
+ * sans fenêtre ni Java2D (tests et benchmarks sur une machine sans écran, serveur...)
+ */
+public interface FrameRenderer {
+    /**
+     * Rend la scène vue depuis la caméra donnée
+     * @param framebuffer Pixels ARGB ligne par ligne (au moins width * height)
+     * @param width Largeur du framebuffer
+     * @param height Hauteur du framebuffer
+     * @param cameraX Position X de la caméra dans la map
+     * @param cameraY Position Y de la caméra dans la map
+     * @param cameraAngle Direction de la caméra en radians
+     */
+    void renderFrame(int[] framebuffer, int width, int height, double cameraX, double cameraY, double cameraAngle);
+
+    /**
+     * Vrai si renderFrame avec ces paramètres reproduirait exactement la dernière frame rendue
+     * (rien n'a bougé dans la scène) : l'appelant peut réutiliser son framebuffer sans rendre.
+     * Par défaut false : toujours rendre.
+     */
+    default boolean isFrameAJour(int width, int height, double cameraX, double cameraY, double cameraAngle) {
+        return false;
+    }
+
+    /**
+     * Dessins Java2D optionnels par dessus la dernière frame présentée (texte, HUD du moteur)
+     */
+    default void renderOverlay(Graphics g, int width, int height) {
+    }
+}
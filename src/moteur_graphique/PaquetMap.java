@@ -0,0 +1,418 @@
+package moteur_graphique;
+
+import moteur_graphique.BSP.ArbreBSP;
+import moteur_graphique.BSP.MapMur;
+import moteur_graphique.BSP.Mur;
+import moteur_graphique.BSP.NoeudBSP;
+import moteur_graphique.raycasting.MapBool;
+import moteur_graphique.raycasting.MapBoolPaginee;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+/**
+ * Paquet binaire d'une map compilée (voir CompilateurMap) : grille compacte, murs et arbre BSP déjà construit.
+ * Chargé par projection mémoire, sans aucun parsing de texte.
+ * <p>
+ * Format (little endian) :
+ * <pre>
+ * en-tête  : "MPAQ", version, position grille, position murs, position noeuds, position textures,
+ *            empreinte des fichiers texte d'origine (long, 0 si inconnus) (32 octets)
+ * grille   : largeur, hauteur, puis les tuiles 64x64 au format de MapBoolPaginee (0 si pas de grille)
+ * textures : un octet par case (y * largeur + x), identifiant de texture du mur (0 si tous les murs ont la texture 1)
+ * murs     : nb textures, textures (longueur u16 + UTF-8), nb murs, nb murs de la map,
+ *            puis par mur x0 y0 x1 y1 (double) et index de texture (-1 si aucune)
+ *            (les premiers murs sont ceux de la map, les suivants les morceaux créés par les coupes du BSP)
+ * noeuds   : nb noeuds, puis en préordre : index du mur, index du fils gauche, index du fils droit (-1 si aucun)
+ * </pre>
+ */
+public class PaquetMap {
+
+    private static final Logger LOGGER = Logger.getLogger(PaquetMap.class.getName());
+
+    public static final int MAGIC = 0x5141504D; // "MPAQ"
+    public static final int VERSION = 2;
+    private static final int TAILLE_ENTETE = 32;
+    private static final int OCTETS_MUR = 4 * Double.BYTES + Integer.BYTES;
+    private static final int OCTETS_NOEUD = 3 * Integer.BYTES;
+
+    private final MapBool grille;
+    private final Mur[] murs;
+    private final int nbMursMap;
+    private final NoeudBSP racineBSP;
+    // Taille et date de modification des fichiers texte compilés : un paquet plus ancien qu'eux est ignoré
+    private final long empreinteSources;
+
+    // Paquet projeté en mémoire (null si construit depuis les fichiers texte)
+    private final ByteBuffer donnees;
+    private final int positionGrille;
+
+    private PaquetMap(MapBool grille, Mur[] murs, int nbMursMap, NoeudBSP racineBSP, long empreinteSources,
+                      ByteBuffer donnees, int positionGrille) {
+        this.grille = grille;
+        this.murs = murs;
+        this.nbMursMap = nbMursMap;
+        this.racineBSP = racineBSP;
+        this.empreinteSources = empreinteSources;
+        this.donnees = donnees;
+        this.positionGrille = positionGrille;
+    }
+
+    /**
+     * Grille du raycaster (null si le paquet n'en contient pas)
+     */
+    public MapBool getGrille() {
+        return grille;
+    }
+
+    /**
+     * Murs de la map tels que décrits dans le fichier source (sans les morceaux issus des coupes)
+     */
+    public MapMur getMapMur() {
+        return new MapMur(Arrays.copyOf(murs, nbMursMap));
+    }
+
+    public NoeudBSP getRacineBSP() {
+        return racineBSP;
+    }
+
+    /**
+     * Empreinte des fichiers texte dont le paquet est issu (voir empreinteSources), 0 si inconnus
+     */
+    public long getEmpreinteSources() {
+        return empreinteSources;
+    }
+
+    /**
+     * Vue paginée de la grille lue directement dans le paquet projeté : seules les tuiles consultées
+     * sont décodées. Null si le paquet vient des fichiers texte ou n'a pas de grille.
+     */
+    public MapBoolPaginee getGrillePaginee(int maxTuilesResidentes) {
+        if (donnees == null || positionGrille == 0) return null;
+        return new MapBoolPaginee(donnees, positionGrille + 8, donnees.getInt(positionGrille),
+                donnees.getInt(positionGrille + 4), maxTuilesResidentes);
+    }
+
+    // --- CHARGEMENT ---
+
+    /**
+     * Charge le paquet s'il existe, est dans la version courante et a été compilé depuis les fichiers texte
+     * tels qu'ils sont sur le disque ; sinon (paquet absent, périmé, corrompu ou tronqué) parse les fichiers
+     * texte et construit le BSP comme avant.
+     *
+     * @param mapTexte Grille au format texte de MapBool (null si aucune)
+     * @param mapBspTexte Murs au format texte de MapMur (null si aucun)
+     */
+    public static PaquetMap chargerOuTexte(Path paquet, String mapTexte, String mapBspTexte) {
+        if (Files.isRegularFile(paquet)) {
+            try {
+                PaquetMap charge = charger(paquet);
+                if (charge.empreinteSources == empreinteSources(mapTexte, mapBspTexte)) {
+                    return charge;
+                }
+                LOGGER.warning("Paquet de map périmé (fichiers texte modifiés depuis la compilation) - chargement des fichiers texte");
+            } catch (RuntimeException e) {
+                // en-tête ou sections illisibles : BufferUnderflowException, IndexOutOfBoundsException...
+                LOGGER.warning("Paquet de map ignoré (" + e + ") - chargement des fichiers texte");
+            }
+        }
+        return depuisTexte(mapTexte, mapBspTexte);
+    }
+
+    /**
+     * Empreinte (taille et date de modification) des fichiers texte d'une map, 0 si aucun n'est donné.
+     * Un fichier absent compte comme une taille et une date de -1.
+     */
+    public static long empreinteSources(String mapTexte, String mapBspTexte) {
+        if (mapTexte == null && mapBspTexte == null) return 0;
+        long empreinte = 1;
+        for (String fichier : new String[]{mapTexte, mapBspTexte}) {
+            long taille = -1;
+            long modification = -1;
+            if (fichier != null) {
+                try {
+                    Path chemin = Path.of(fichier);
+                    taille = Files.size(chemin);
+                    modification = Files.getLastModifiedTime(chemin).toMillis();
+                } catch (IOException e) {
+                    // absent ou illisible : le texte échouera de toute façon, le paquet ne correspond pas
+                }
+            }
+            empreinte = (empreinte * 31 + taille) * 31 + modification;
+        }
+        return empreinte;
+    }
+
+    /**
+     * chargerOuTexte sur le thread de chargement des maps (voir MapBool.chargerAsync)
+     */
+    public static CompletableFuture<PaquetMap> chargerOuTexteAsync(Path paquet, String mapTexte, String mapBspTexte) {
+        return MapBool.chargerAsync(() -> chargerOuTexte(paquet, mapTexte, mapBspTexte));
+    }
+
+    public static PaquetMap depuisTexte(String mapTexte, String mapBspTexte) {
+        MapBool grille = mapTexte != null ? new MapBool(mapTexte) : null;
+        MapMur mapMur = mapBspTexte != null ? new MapMur(mapBspTexte) : new MapMur(new Mur[0]);
+        ArbreBSP arbre = new ArbreBSP();
+        arbre.setConstructionParallele(true); // grosses maps : ne pas bloquer le chargement sur un seul coeur
+        NoeudBSP racine = arbre.construireBSP(mapMur);
+        return depuisCompile(grille, mapMur, racine, empreinteSources(mapTexte, mapBspTexte));
+    }
+
+    /**
+     * Regroupe des données déjà construites (les murs créés par les coupes sont retrouvés dans l'arbre)
+     */
+    public static PaquetMap depuisCompile(MapBool grille, MapMur mapMur, NoeudBSP racine) {
+        return depuisCompile(grille, mapMur, racine, 0);
+    }
+
+    private static PaquetMap depuisCompile(MapBool grille, MapMur mapMur, NoeudBSP racine, long empreinteSources) {
+        Map<Mur, Integer> indexMurs = indexerMurs(mapMur, racine);
+        return new PaquetMap(grille, indexMurs.keySet().toArray(new Mur[0]), mapMur.getMurs().length, racine,
+                empreinteSources, null, 0);
+    }
+
+    public static PaquetMap charger(Path fichier) {
+        ByteBuffer donnees;
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Paquet de map trop grand (> 2 Go): " + fichier);
+            }
+            donnees = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()).order(ByteOrder.LITTLE_ENDIAN);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'ouvrir le paquet de map: " + fichier, e);
+        }
+
+        if (donnees.limit() < TAILLE_ENTETE || donnees.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Fichier qui n'est pas un paquet de map: " + fichier);
+        }
+        if (donnees.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Version de paquet non supportée: " + donnees.getInt(4));
+        }
+        int positionGrille = donnees.getInt(8);
+        int positionMurs = donnees.getInt(12);
+        int positionNoeuds = donnees.getInt(16);
+        int positionTextures = donnees.getInt(20);
+        long empreinteSources = donnees.getLong(24);
+
+        MapBool grille = positionGrille != 0 ? lireGrille(donnees, positionGrille, positionTextures) : null;
+
+        // Murs
+        ByteBuffer lecture = donnees.duplicate().order(ByteOrder.LITTLE_ENDIAN).position(positionMurs);
+        String[] textures = new String[verifierNombre(lecture.getInt(), Short.BYTES, lecture)];
+        for (int i = 0; i < textures.length; i++) {
+            byte[] utf8 = new byte[lecture.getShort() & 0xFFFF];
+            lecture.get(utf8);
+            textures[i] = new String(utf8, StandardCharsets.UTF_8);
+        }
+        Mur[] murs = new Mur[verifierNombre(lecture.getInt(), OCTETS_MUR, lecture)];
+        int nbMursMap = lecture.getInt();
+        if (nbMursMap < 0 || nbMursMap > murs.length) {
+            throw new IllegalArgumentException("Paquet de map corrompu : " + nbMursMap + " murs de map sur " + murs.length);
+        }
+        for (int i = 0; i < murs.length; i++) {
+            double x0 = lecture.getDouble();
+            double y0 = lecture.getDouble();
+            double x1 = lecture.getDouble();
+            double y1 = lecture.getDouble();
+            int texture = lecture.getInt();
+            if (texture >= textures.length) {
+                throw new IllegalArgumentException("Paquet de map corrompu : texture " + texture + " du mur " + i);
+            }
+            murs[i] = new Mur(x0, y0, x1, y1, texture >= 0 ? textures[texture] : null);
+        }
+
+        // Noeuds en préordre : les fils ont un index plus grand que leur parent, on construit depuis la fin
+        lecture.position(positionNoeuds);
+        NoeudBSP[] noeuds = new NoeudBSP[verifierNombre(lecture.getInt(), OCTETS_NOEUD, lecture)];
+        int debutNoeuds = lecture.position();
+        for (int i = noeuds.length - 1; i >= 0; i--) {
+            int position = debutNoeuds + i * OCTETS_NOEUD;
+            int mur = donnees.getInt(position);
+            int gauche = donnees.getInt(position + 4);
+            int droit = donnees.getInt(position + 8);
+            // préordre : un fils manquant ou pas encore construit trahit un paquet corrompu
+            if (mur < 0 || mur >= murs.length || !filsValide(gauche, i, noeuds) || !filsValide(droit, i, noeuds)) {
+                throw new IllegalArgumentException("Paquet de map corrompu : noeud " + i);
+            }
+            noeuds[i] = new NoeudBSP(murs[mur],
+                    gauche >= 0 ? noeuds[gauche] : null, droit >= 0 ? noeuds[droit] : null);
+        }
+        NoeudBSP racine = noeuds.length > 0 ? noeuds[0] : null;
+
+        return new PaquetMap(grille, murs, nbMursMap, racine, empreinteSources, donnees, positionGrille);
+    }
+
+    /**
+     * Nombre d'éléments lu dans le paquet, refusé s'il ne peut pas tenir dans la suite du fichier
+     * (un paquet corrompu ne doit pas faire allouer un tableau démesuré)
+     */
+    private static int verifierNombre(int nombre, int octetsMinParElement, ByteBuffer lecture) {
+        if (nombre < 0 || (long) nombre * octetsMinParElement > lecture.remaining()) {
+            throw new IllegalArgumentException("Paquet de map tronqué ou corrompu : " + nombre + " éléments annoncés");
+        }
+        return nombre;
+    }
+
+    private static boolean filsValide(int fils, int parent, NoeudBSP[] noeuds) {
+        return fils == -1 || (fils > parent && fils < noeuds.length && noeuds[fils] != null);
+    }
+
+    /**
+     * Recompose la grille compacte ligne par ligne : une ligne de tuile est exactement un mot de MapBool
+     */
+    private static MapBool lireGrille(ByteBuffer donnees, int position, int positionTextures) {
+        int largeur = donnees.getInt(position);
+        int hauteur = donnees.getInt(position + 4);
+        int tuile = MapBoolPaginee.TAILLE_TUILE;
+        int motsParLigne = (largeur + 63) >>> 6;
+        int tuilesY = (hauteur + tuile - 1) / tuile;
+        if (largeur <= 0 || hauteur <= 0
+                || position + 8 + (long) tuilesY * motsParLigne * tuile * Long.BYTES > donnees.limit()) {
+            throw new IllegalArgumentException("Paquet de map tronqué ou corrompu : grille " + largeur + "x" + hauteur);
+        }
+        long[] bits = new long[motsParLigne * hauteur];
+
+        int lecture = position + 8;
+        for (int ty = 0; ty < tuilesY; ty++) {
+            for (int tx = 0; tx < motsParLigne; tx++) {
+                for (int r = 0; r < tuile; r++) {
+                    int y = ty * tuile + r;
+                    if (y < hauteur) {
+                        bits[y * motsParLigne + tx] = donnees.getLong(lecture);
+                    }
+                    lecture += Long.BYTES;
+                }
+            }
+        }
+        byte[] texturesCases = null;
+        if (positionTextures != 0) {
+            texturesCases = new byte[largeur * hauteur];
+            donnees.get(positionTextures, texturesCases);
+        }
+        return MapBool.depuisBits(largeur, hauteur, bits, texturesCases);
+    }
+
+    // --- ECRITURE ---
+
+    public void ecrire(Path fichier) {
+        Map<Mur, Integer> indexMurs = indexerMurs(new MapMur(Arrays.copyOf(murs, nbMursMap)), racineBSP);
+        Map<String, Integer> indexTextures = new LinkedHashMap<>();
+        int octetsTextures = Integer.BYTES;
+        for (Mur mur : indexMurs.keySet()) {
+            if (mur.texture != null && !indexTextures.containsKey(mur.texture)) {
+                indexTextures.put(mur.texture, indexTextures.size());
+                octetsTextures += Short.BYTES + mur.texture.getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+        List<NoeudBSP> noeuds = new ArrayList<>();
+        listerPrefixe(racineBSP, noeuds);
+
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            int positionGrille = 0;
+            canal.position(TAILLE_ENTETE);
+            if (grille != null) {
+                positionGrille = TAILLE_ENTETE;
+                ByteBuffer dimensions = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+                dimensions.putInt(grille.getWIDTH()).putInt(grille.getHeight()).flip();
+                ecrireTout(canal, dimensions);
+                MapBoolPaginee.ecrireTuiles(grille, canal);
+            }
+
+            int positionMurs = (int) canal.position();
+            ByteBuffer sectionMurs = ByteBuffer.allocate(octetsTextures + 2 * Integer.BYTES + indexMurs.size() * OCTETS_MUR)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            sectionMurs.putInt(indexTextures.size());
+            for (String texture : indexTextures.keySet()) {
+                byte[] utf8 = texture.getBytes(StandardCharsets.UTF_8);
+                sectionMurs.putShort((short) utf8.length).put(utf8);
+            }
+            sectionMurs.putInt(indexMurs.size()).putInt(nbMursMap);
+            for (Mur mur : indexMurs.keySet()) {
+                sectionMurs.putDouble(mur.x0).putDouble(mur.y0).putDouble(mur.x1).putDouble(mur.y1);
+                sectionMurs.putInt(mur.texture != null ? indexTextures.get(mur.texture) : -1);
+            }
+            ecrireTout(canal, sectionMurs.flip());
+
+            int positionTextures = 0;
+            if (grille != null && grille.getTexturesCases() != null) {
+                positionTextures = (int) canal.position();
+                ecrireTout(canal, ByteBuffer.wrap(grille.getTexturesCases()));
+            }
+
+            int positionNoeuds = (int) canal.position();
+            Map<NoeudBSP, Integer> indexNoeuds = new IdentityHashMap<>();
+            for (NoeudBSP noeud : noeuds) {
+                indexNoeuds.put(noeud, indexNoeuds.size());
+            }
+            ByteBuffer sectionNoeuds = ByteBuffer.allocate(Integer.BYTES + noeuds.size() * OCTETS_NOEUD)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            sectionNoeuds.putInt(noeuds.size());
+            for (NoeudBSP noeud : noeuds) {
+                sectionNoeuds.putInt(indexMurs.get(noeud.getMurDiviseur()));
+                sectionNoeuds.putInt(noeud.getGauche() != null ? indexNoeuds.get(noeud.getGauche()) : -1);
+                sectionNoeuds.putInt(noeud.getDroit() != null ? indexNoeuds.get(noeud.getDroit()) : -1);
+            }
+            ecrireTout(canal, sectionNoeuds.flip());
+
+            // En-tête écrit en dernier : un paquet interrompu n'est pas reconnu
+            ByteBuffer entete = ByteBuffer.allocate(TAILLE_ENTETE).order(ByteOrder.LITTLE_ENDIAN);
+            entete.putInt(MAGIC).putInt(VERSION).putInt(positionGrille).putInt(positionMurs).putInt(positionNoeuds).putInt(positionTextures)
+                    .putLong(empreinteSources);
+            canal.write(entete.flip(), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'écrire le paquet de map: " + fichier, e);
+        }
+    }
+
+    private static void ecrireTout(FileChannel canal, ByteBuffer tampon) throws IOException {
+        while (tampon.hasRemaining()) {
+            canal.write(tampon);
+        }
+    }
+
+    /**
+     * Murs de la map d'abord (dans leur ordre), puis ceux qui n'existent que dans l'arbre (morceaux coupés)
+     */
+    private static Map<Mur, Integer> indexerMurs(MapMur mapMur, NoeudBSP racine) {
+        // Mur ne redéfinit pas equals : l'index est par identité
+        Map<Mur, Integer> index = new LinkedHashMap<>();
+        for (Mur mur : mapMur.getMurs()) {
+            index.putIfAbsent(mur, index.size());
+        }
+        List<NoeudBSP> noeuds = new ArrayList<>();
+        listerPrefixe(racine, noeuds);
+        for (NoeudBSP noeud : noeuds) {
+            index.putIfAbsent(noeud.getMurDiviseur(), index.size());
+        }
+        return index;
+    }
+
+    private static void listerPrefixe(NoeudBSP racine, List<NoeudBSP> noeuds) {
+        // Pile explicite : l'arbre d'une grande map peut être très profond
+        List<NoeudBSP> pile = new ArrayList<>();
+        if (racine != null) pile.add(racine);
+        while (!pile.isEmpty()) {
+            NoeudBSP noeud = pile.removeLast();
+            noeuds.add(noeud);
+            if (noeud.getDroit() != null) pile.add(noeud.getDroit());
+            if (noeud.getGauche() != null) pile.add(noeud.getGauche());
+        }
+    }
+}
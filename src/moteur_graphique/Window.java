@@ -1,11 +1,17 @@
 package moteur_graphique;
 
+import entite.Joueur;
+
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Window extends JFrame {
 
@@ -13,6 +19,23 @@ public class Window extends JFrame {
     private final CanvasPanel panelDessin;
     private GameRenderer renderer;
 
+    // Rendu headless présenté par la fenêtre : le moteur écrit dans frameBuffer, la fenêtre ne fait que l'afficher
+    // volatile : peut être branché par la boucle de jeu une fois la fenêtre affichée (chargement asynchrone)
+    // transient : état de rendu, jamais sérialisé avec la fenêtre
+    private transient volatile FrameRenderer frameRenderer;
+    private transient Joueur camera;
+    private transient volatile BufferedImage frameImage;
+    private transient int[] frameBuffer;
+
+    // Frames inchangées : rien ne bouge (caméra, scène du moteur, HUD) -> pas de repaint, ou framebuffer réutilisé
+    private transient volatile FrameRenderer rendererPresente; // moteur dont frameBuffer contient la dernière frame
+    private volatile int versionCameraPresentee = -1;
+    private volatile int versionHudPresentee = -1;
+    private final AtomicInteger versionHud = new AtomicInteger();
+    private final AtomicLong framesRendues = new AtomicLong();
+    private final AtomicLong framesReutilisees = new AtomicLong();
+    private final AtomicLong framesSautees = new AtomicLong();
+
     // --- GESTION UI (Logs & Scoreboard) ---
     private final List<LogMessage> logMessages = new CopyOnWriteArrayList<>();
     private static final int MAX_LOGS = 5;
@@ -69,15 +92,51 @@ public class Window extends JFrame {
 
     public void setRenderer(GameRenderer renderer) {
         this.renderer = renderer;
+        this.frameRenderer = null;
+    }
+
+    /**
+     * La fenêtre devient un simple présentateur : elle fournit le framebuffer,
+     * le moteur y rend la scène vue par la caméra, puis la fenêtre l'affiche en un seul blit.
+     */
+    public void setFrameRenderer(FrameRenderer frameRenderer, Joueur camera) {
+        this.renderer = null;
+        this.camera = camera;
+        this.frameRenderer = frameRenderer;
     }
 
     /**
-     * Appelé par la boucle de jeu pour rafraîchir l'écran
+     * Appelé par la boucle de jeu pour rafraîchir l'écran. Sans aucun changement depuis la dernière
+     * image affichée (caméra, scène du moteur, HUD), le repaint est sauté.
      */
     public void draw() {
+        if (imageAJour()) {
+            framesSautees.incrementAndGet();
+            return;
+        }
         panelDessin.repaint();
     }
 
+    private boolean imageAJour() {
+        FrameRenderer frameCourant = frameRenderer;
+        BufferedImage image = frameImage;
+        if (frameCourant == null || image == null || rendererPresente != frameCourant) return false;
+        // les messages s'estompent avec le temps : le HUD change tant qu'il en reste
+        if (!logMessages.isEmpty() || versionHud.get() != versionHudPresentee) return false;
+        if (camera.getVersion() != versionCameraPresentee) return false;
+        if (image.getWidth() != panelDessin.getWidth() || image.getHeight() != panelDessin.getHeight()) return false;
+        return frameCourant.isFrameAJour(image.getWidth(), image.getHeight(), camera.getX(), camera.getY(), camera.getAngle());
+    }
+
+    /** Frames calculées par le moteur */
+    public long getFramesRendues() { return framesRendues.get(); }
+
+    /** Repaints dont la scène n'avait pas changé : framebuffer précédent réaffiché sans rendu (HUD seul modifié) */
+    public long getFramesReutilisees() { return framesReutilisees.get(); }
+
+    /** Frames de la boucle de jeu sans aucun changement : ni rendu ni repaint */
+    public long getFramesSautees() { return framesSautees.get(); }
+
     // --- API pour MainGame (Délégation vers le Panel) ---
     // Pour attacher les listeners (Input) sans exposer le panel directement
     public void addInputListener(java.util.EventListener listener) {
@@ -106,11 +165,22 @@ public class Window extends JFrame {
     public void addLogMessage(String message, Color color) {
         logMessages.add(new LogMessage(message, color));
         while (logMessages.size() > MAX_LOGS) logMessages.remove(0);
+        versionHud.incrementAndGet();
     }
 
-    public void setShowScoreboard(boolean show) { this.showScoreboard = show; }
+    public void setShowScoreboard(boolean show) {
+        if (show != showScoreboard) {
+            this.showScoreboard = show;
+            versionHud.incrementAndGet();
+        }
+    }
 
     public void updatePlayerList(String localPlayer, List<String> remotePlayers) {
+        if (localPlayer.equals(localPlayerName) && playerList.size() == remotePlayers.size() + 1
+                && playerList.subList(1, playerList.size()).equals(remotePlayers)) {
+            return; // appelé à chaque frame tant que le tableau est affiché : rien à redessiner
+        }
+        versionHud.incrementAndGet();
         this.localPlayerName = localPlayer;
         this.playerList.clear();
         this.playerList.add(localPlayer);
@@ -123,9 +193,13 @@ public class Window extends JFrame {
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
+            versionHudPresentee = versionHud.get();
 
             // 1. Dessiner le jeu (Raycasting ou autre)
-            if (renderer != null) {
+            FrameRenderer frameCourant = frameRenderer;
+            if (frameCourant != null) {
+                presenterFrame(frameCourant, g, getWidth(), getHeight());
+            } else if (renderer != null) {
                 renderer.render(g, getWidth(), getHeight());
             }
 
@@ -137,6 +211,26 @@ public class Window extends JFrame {
         }
     }
 
+    private void presenterFrame(FrameRenderer frameRenderer, Graphics g, int width, int height) {
+        if (width <= 0 || height <= 0) return;
+        if (frameImage == null || frameImage.getWidth() != width || frameImage.getHeight() != height) {
+            frameImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            frameBuffer = ((DataBufferInt) frameImage.getRaster().getDataBuffer()).getData();
+            rendererPresente = null;
+        }
+        versionCameraPresentee = camera.getVersion();
+        if (rendererPresente == frameRenderer
+                && frameRenderer.isFrameAJour(width, height, camera.getX(), camera.getY(), camera.getAngle())) {
+            framesReutilisees.incrementAndGet();
+        } else {
+            frameRenderer.renderFrame(frameBuffer, width, height, camera.getX(), camera.getY(), camera.getAngle());
+            rendererPresente = frameRenderer;
+            framesRendues.incrementAndGet();
+        }
+        g.drawImage(frameImage, 0, 0, null);
+        frameRenderer.renderOverlay(g, width, height);
+    }
+
     private void dessinerLogs(Graphics g) {
         logMessages.removeIf(LogMessage::isExpired);
         if (logMessages.isEmpty()) return;
@@ -0,0 +1,211 @@
+package moteur_graphique.raycasting;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Textures de murs en 8 bits : chaque texel est un index dans une palette de 256 couleurs commune
+ * à toutes les textures. Un texel pèse 1 octet au lieu de 4, la boucle de colonne lit 4 fois moins
+ * de mémoire texture (la palette, 1 Ko, reste en cache).
+ * <p>
+ * Les textures sont indexées par l'identifiant de texture des cases de la map (1 à MapBool.MAX_TEXTURE_ID)
+ * et stockées colonne par colonne (texX * hauteur + texY) comme les textures 32 bits du raycasting,
+ * avec leur chaîne de mipmaps (réduite en couleurs puis ramenée sur la même palette).
+ */
+public final class BanqueTextures {
+
+    private static final Logger LOGGER = Logger.getLogger(BanqueTextures.class.getName());
+
+    public static final int TAILLE_PALETTE = 256;
+    private static final String[] EXTENSIONS = {".png", ".jpg"};
+
+    private final int[] palette;
+    private final byte[][][] texels; // par identifiant puis niveau de mipmap, colonne par colonne
+    private final int[] largeurs;
+    private final int[] hauteurs;
+
+    private BanqueTextures(int[] palette, byte[][][] texels, int[] largeurs, int[] hauteurs) {
+        this.palette = palette;
+        this.texels = texels;
+        this.largeurs = largeurs;
+        this.hauteurs = hauteurs;
+    }
+
+    /**
+     * Quantifie les images (images[id], null si l'identifiant n'a pas de texture) sur une palette commune.
+     * Un identifiant sans image reprend la texture 1, ou la première texture fournie.
+     */
+    public static BanqueTextures depuisImages(BufferedImage[] images) {
+        int nbIds = MapBool.MAX_TEXTURE_ID + 1;
+        int[][] pixels = new int[nbIds][];
+        int[] largeurs = new int[nbIds];
+        int[] hauteurs = new int[nbIds];
+        int premier = -1;
+        for (int id = 1; id < nbIds && id < images.length; id++) {
+            BufferedImage image = images[id];
+            if (image == null) continue;
+            largeurs[id] = image.getWidth();
+            hauteurs[id] = image.getHeight();
+            pixels[id] = image.getRGB(0, 0, largeurs[id], hauteurs[id], null, 0, largeurs[id]);
+            if (premier < 0) premier = id;
+        }
+        if (premier < 0) {
+            throw new IllegalArgumentException("Aucune texture fournie");
+        }
+
+        int[] palette = construirePalette(pixels);
+        int[] indexParCase = new int[1 << 15]; // couleur 15 bits -> index de palette, -1 = pas encore cherché
+        Arrays.fill(indexParCase, -1);
+
+        byte[][][] texels = new byte[nbIds][][];
+        for (int id = 1; id < nbIds; id++) {
+            if (pixels[id] == null) continue;
+            int largeur = largeurs[id];
+            int hauteur = hauteurs[id];
+            int[] colonnes = new int[largeur * hauteur];
+            for (int x = 0; x < largeur; x++) {
+                for (int y = 0; y < hauteur; y++) {
+                    colonnes[x * hauteur + y] = pixels[id][y * largeur + x];
+                }
+            }
+            int[][] chaine = Mipmaps.construireChaine(colonnes, largeur, hauteur);
+            texels[id] = new byte[chaine.length][];
+            for (int niveau = 0; niveau < chaine.length; niveau++) {
+                byte[] index = new byte[chaine[niveau].length];
+                for (int i = 0; i < index.length; i++) {
+                    int case15 = case15Bits(chaine[niveau][i]);
+                    if (indexParCase[case15] < 0) {
+                        indexParCase[case15] = plusProche(palette, case15);
+                    }
+                    index[i] = (byte) indexParCase[case15];
+                }
+                texels[id][niveau] = index;
+            }
+        }
+
+        int defaut = texels[1] != null ? 1 : premier;
+        for (int id = 1; id < nbIds; id++) {
+            if (texels[id] == null) {
+                texels[id] = texels[defaut];
+                largeurs[id] = largeurs[defaut];
+                hauteurs[id] = hauteurs[defaut];
+            }
+        }
+        return new BanqueTextures(palette, texels, largeurs, hauteurs);
+    }
+
+    /**
+     * Charge les textures mur_1.png ... mur_9.png, mur_A.png ... mur_Z.png (ou .jpg) du dossier,
+     * le caractère étant celui des cases de la map. null si le dossier n'en contient aucune.
+     */
+    public static BanqueTextures chargerDossier(String dossier) {
+        BufferedImage[] images = new BufferedImage[MapBool.MAX_TEXTURE_ID + 1];
+        boolean trouvee = false;
+        for (int id = 1; id <= MapBool.MAX_TEXTURE_ID; id++) {
+            char c = id <= 9 ? (char) ('0' + id) : (char) ('A' + id - 10);
+            for (String extension : EXTENSIONS) {
+                File fichier = new File(dossier, "mur_" + c + extension);
+                if (!fichier.exists()) continue;
+                try {
+                    images[id] = ImageIO.read(fichier);
+                    trouvee |= images[id] != null;
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, e, () -> "Texture illisible: " + fichier);
+                }
+                break;
+            }
+        }
+        return trouvee ? depuisImages(images) : null;
+    }
+
+    /**
+     * Palette par popularité : les 256 cases de couleur (15 bits) les plus fréquentes sur l'ensemble
+     * des textures, chacune représentée par la moyenne de ses pixels
+     */
+    private static int[] construirePalette(int[][] pixels) {
+        int[] compte = new int[1 << 15];
+        long[] sommeR = new long[1 << 15];
+        long[] sommeG = new long[1 << 15];
+        long[] sommeB = new long[1 << 15];
+        for (int[] texture : pixels) {
+            if (texture == null) continue;
+            for (int argb : texture) {
+                int c = case15Bits(argb);
+                compte[c]++;
+                sommeR[c] += (argb >> 16) & 0xFF;
+                sommeG[c] += (argb >> 8) & 0xFF;
+                sommeB[c] += argb & 0xFF;
+            }
+        }
+
+        // tri des cases utilisées par fréquence décroissante (compte dans les bits forts, case dans les bits faibles)
+        long[] cles = new long[compte.length];
+        int nbCases = 0;
+        for (int c = 0; c < compte.length; c++) {
+            if (compte[c] > 0) cles[nbCases++] = ((long) compte[c] << 15) | c;
+        }
+        Arrays.sort(cles, 0, nbCases);
+
+        int[] palette = new int[TAILLE_PALETTE];
+        int nbCouleurs = Math.min(TAILLE_PALETTE, nbCases);
+        for (int i = 0; i < nbCouleurs; i++) {
+            int c = (int) (cles[nbCases - 1 - i] & 0x7FFF);
+            int r = (int) (sommeR[c] / compte[c]);
+            int g = (int) (sommeG[c] / compte[c]);
+            int b = (int) (sommeB[c] / compte[c]);
+            palette[i] = 0xFF000000 | (r << 16) | (g << 8) | b;
+        }
+        // entrées inutilisées : répètent la première couleur (jamais choisies par plusProche avant elle)
+        for (int i = nbCouleurs; i < TAILLE_PALETTE; i++) {
+            palette[i] = palette[0];
+        }
+        return palette;
+    }
+
+    private static int case15Bits(int argb) {
+        return ((argb >> 9) & 0x7C00) | ((argb >> 6) & 0x03E0) | ((argb >> 3) & 0x001F);
+    }
+
+    private static int plusProche(int[] palette, int case15) {
+        // centre de la case de couleur
+        int r = ((case15 >> 10) << 3) | 4;
+        int g = (((case15 >> 5) & 0x1F) << 3) | 4;
+        int b = ((case15 & 0x1F) << 3) | 4;
+        int meilleur = 0;
+        int meilleureDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < palette.length; i++) {
+            int dr = ((palette[i] >> 16) & 0xFF) - r;
+            int dg = ((palette[i] >> 8) & 0xFF) - g;
+            int db = (palette[i] & 0xFF) - b;
+            int distance = dr * dr + dg * dg + db * db;
+            if (distance < meilleureDistance) {
+                meilleureDistance = distance;
+                meilleur = i;
+            }
+        }
+        return meilleur;
+    }
+
+    /** Palette commune (256 couleurs ARGB opaques), partagée : ne pas modifier */
+    public int[] getPalette() { return palette; }
+
+    /** Index de palette de la texture, colonne par colonne (texX * hauteur + texY), partagé : ne pas modifier */
+    public byte[] getTexels(int textureId) { return texels[textureId][0]; }
+
+    /** Niveau de mipmap de la texture (côtés divisés par 2^niveau, au moins 1), borné au dernier niveau */
+    public byte[] getTexels(int textureId, int niveauMip) {
+        byte[][] chaine = texels[textureId];
+        return chaine[Math.min(niveauMip, chaine.length - 1)];
+    }
+
+    public int getNbMips(int textureId) { return texels[textureId].length; }
+
+    public int getLargeur(int textureId) { return largeurs[textureId]; }
+
+    public int getHauteur(int textureId) { return hauteurs[textureId]; }
+}
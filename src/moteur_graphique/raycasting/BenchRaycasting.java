@@ -0,0 +1,560 @@
+package moteur_graphique.raycasting;
+
+import entite.Joueur;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Micro-benchmarks du raycaster, lancés à la main (pas de framework de bench dans le projet).
+ * Chaque scénario rend des frames hors écran via renderFrame et affiche le temps moyen par frame.
+ */
+public class BenchRaycasting {
+
+    private static final int FRAMES_CHAUFFE = 200;
+    private static final int FRAMES_MESURE = 300;
+
+    // Caméra face à un mur proche : les colonnes texturées couvrent la majeure partie de l'écran
+    private static final double CAMERA_X = 2.0;
+    private static final double CAMERA_Y = 5.0;
+    private static final double CAMERA_ANGLE = Math.PI;
+
+    private static final int[][] RESOLUTIONS = {{1920, 1080}, {2560, 1440}};
+
+    public static void main(String[] args) {
+        System.out.println("=== Colonnes texturées : pas fixe 32.32 vs calcul flottant par pixel ===");
+        benchTexturePasFixe();
+
+        System.out.println("\n=== Échantillonnage vertical : texture ligne par ligne vs colonne par colonne ===");
+        benchDispositionTexture();
+
+        System.out.println("\n=== DDA sur grande map : boolean[][] vs grille compacte long[] ===");
+        benchDdaGrandeMap();
+
+        System.out.println("\n=== Arène ouverte 256x256 : DDA pas à pas vs saut des zones vides ===");
+        benchSautEspaceVide();
+
+        System.out.println("\n=== Brouillard : sans éclairage vs tables d'ombrage vs calcul flottant par pixel ===");
+        benchEclairage();
+
+        System.out.println("\n=== Textures de murs 256x256 : ARGB 32 bits vs index 8 bits + palette ===");
+        benchTexturesPalette();
+
+        System.out.println("\n=== Couloirs : texture pleine vs mipmaps (murs 256x256 et sprites) ===");
+        benchMipmaps();
+
+        System.out.println("\n=== Rotation sur place : DDA à chaque frame vs panorama 360° ===");
+        benchPanorama();
+    }
+
+    private static void benchTexturePasFixe() {
+        BufferedImage texture = creerTextureBriques(64, 64);
+        for (int[] res : RESOLUTIONS) {
+            for (boolean pasFixe : new boolean[]{false, true}) {
+                Raycasting raycasting = creerRaycastingMurProche();
+                raycasting.setWallTexture(texture);
+                raycasting.setTexturePasFixe(pasFixe);
+                double ms = mesurerFrame(raycasting, res[0], res[1]);
+                System.out.printf("%dx%d  %-18s %7.3f ms/frame%n", res[0], res[1],
+                        pasFixe ? "pas fixe 32.32" : "flottant/pixel", ms);
+            }
+        }
+    }
+
+    /**
+     * Isole l'effet de la disposition mémoire : les mêmes colonnes de mur (pas fixe 32.32) sont
+     * échantillonnées dans une texture stockée ligne par ligne puis colonne par colonne.
+     */
+    private static void benchDispositionTexture() {
+        int largeurEcran = 1920;
+        int hauteurEcran = 1080;
+        int[] ecran = new int[largeurEcran * hauteurEcran];
+        for (int taille : new int[]{256, 1024}) {
+            int[] lignes = new int[taille * taille];
+            int[] colonnes = new int[taille * taille];
+            for (int y = 0; y < taille; y++) {
+                for (int x = 0; x < taille; x++) {
+                    int color = 0xFF000000 | (x * 31 + y * 17);
+                    lignes[y * taille + x] = color;
+                    colonnes[x * taille + y] = color;
+                }
+            }
+            for (boolean colonneParColonne : new boolean[]{false, true}) {
+                int[] texture = colonneParColonne ? colonnes : lignes;
+                for (int i = 0; i < FRAMES_CHAUFFE; i++) {
+                    echantillonnerColonnes(texture, taille, colonneParColonne, ecran, largeurEcran, hauteurEcran);
+                }
+                long debut = System.nanoTime();
+                for (int i = 0; i < FRAMES_MESURE; i++) {
+                    echantillonnerColonnes(texture, taille, colonneParColonne, ecran, largeurEcran, hauteurEcran);
+                }
+                double ms = (System.nanoTime() - debut) / 1_000_000.0 / FRAMES_MESURE;
+                System.out.printf("texture %4dx%-4d  %-20s %7.3f ms/frame%n", taille, taille,
+                        colonneParColonne ? "colonne par colonne" : "ligne par ligne", ms);
+            }
+        }
+    }
+
+    private static void echantillonnerColonnes(int[] texture, int taille, boolean colonneParColonne,
+                                               int[] ecran, int largeurEcran, int hauteurEcran) {
+        int pas = ((taille << 16) - 1) / hauteurEcran;
+        for (int x = 0; x < largeurEcran; x++) {
+            int texX = (int) ((long) x * taille / largeurEcran);
+            int pos = 0;
+            int index = x;
+            for (int y = 0; y < hauteurEcran; y++) {
+                int texY = pos >>> 16;
+                ecran[index] = colonneParColonne ? texture[texX * taille + texY] : texture[texY * taille + texX];
+                pos += pas;
+                index += largeurEcran;
+            }
+        }
+    }
+
+    /**
+     * Débit du DDA (cases parcourues par seconde) sur des maps de 1024² et 4096² à murs clairsemés,
+     * même boucle DDA sur l'ancienne grille boolean[][] et sur la grille compacte de MapBool.
+     */
+    private static void benchDdaGrandeMap() {
+        final int nbRayons = 200_000;
+        for (int taille : new int[]{1024, 4096}) {
+            MapBool map = creerMapAleatoire(taille, 0.02, 42);
+            boolean[][] grille = new boolean[taille][taille];
+            for (int y = 0; y < taille; y++) {
+                for (int x = 0; x < taille; x++) {
+                    grille[y][x] = map.isWall(x, y);
+                }
+            }
+
+            java.util.Random random = new java.util.Random(7);
+            double[] rayons = new double[nbRayons * 3];
+            for (int i = 0; i < nbRayons; i++) {
+                rayons[i * 3] = 1 + random.nextDouble() * (taille - 2);
+                rayons[i * 3 + 1] = 1 + random.nextDouble() * (taille - 2);
+                rayons[i * 3 + 2] = random.nextDouble() * 2 * Math.PI;
+            }
+
+            for (boolean compacte : new boolean[]{false, true}) {
+                ddaRayons(map, grille, rayons, compacte); // chauffe
+                long debut = System.nanoTime();
+                long cases = 0;
+                for (int r = 0; r < 5; r++) {
+                    cases += ddaRayons(map, grille, rayons, compacte);
+                }
+                double secondes = (System.nanoTime() - debut) / 1e9;
+                System.out.printf("map %4dx%-4d  %-18s %8.1f Mcases/s  %6.2f Mrayons/s%n", taille, taille,
+                        compacte ? "long[] compacte" : "boolean[][]", cases / secondes / 1e6, nbRayons * 5 / secondes / 1e6);
+            }
+        }
+    }
+
+    private static void benchSautEspaceVide() {
+        MapBool map = creerMapAleatoire(256, 0.0005, 11);
+        for (boolean saut : new boolean[]{false, true}) {
+            Raycasting raycasting = new Raycasting(map, new Joueur(128.5, 128.5, 0.4));
+            raycasting.setProjectionPlanCamera(true);
+            raycasting.setSautEspaceVide(saut);
+            double ms = mesurerRotation(raycasting, 128.5, 128.5);
+            System.out.printf("1920x1080  %-18s %7.3f ms/frame%n", saut ? "saut zones vides" : "pas à pas", ms);
+        }
+    }
+
+    /**
+     * Coût de l'ombrage par distance sur une frame complète (murs, sprites) : tables d'ombrage
+     * (copies pré-ombrées des textures 64², puis tables lues pour chaque texel sur des textures
+     * 1024² trop grosses pour être copiées), comparées à la frame sans éclairage, puis au
+     * brouillard « naïf » appliqué après coup en flottant sur chaque pixel
+     */
+    private static void benchEclairage() {
+        MapBool salle = creerMapAleatoire(24, 0.03, 5);
+        Eclairage eclairage = new Eclairage(Color.BLACK, 16);
+        String[] modes = {"sans éclairage", "tables d'ombrage", "flottant/pixel", "sans éclairage 1024²", "tables 1024²"};
+        for (int mode = 0; mode < modes.length; mode++) {
+            Raycasting raycasting = new Raycasting(salle, new Joueur(12.5, 12.5, 0.3));
+            int taille = mode >= 3 ? 1024 : 64;
+            raycasting.setWallTexture(creerTextureBriques(taille, taille));
+            raycasting.setProjectionPlanCamera(true);
+            raycasting.setEclairage(mode == 1 || mode == 4 ? eclairage : null);
+            raycasting.addSprite(new entite.Sprite(14.5, 13.5));
+
+            int[] framebuffer = new int[1920 * 1080];
+            double[] profondeurs = mode == 2 ? profondeursEcran(1920, 1080) : null;
+            long debut = 0;
+            for (int i = 0; i < FRAMES_CHAUFFE + FRAMES_MESURE; i++) {
+                if (i == FRAMES_CHAUFFE) debut = System.nanoTime();
+                raycasting.renderFrame(framebuffer, 1920, 1080, 12.5, 12.5, i * 0.03);
+                if (profondeurs != null) {
+                    brouillardFlottant(framebuffer, profondeurs, 16);
+                }
+            }
+            double ms = (System.nanoTime() - debut) / 1_000_000.0 / FRAMES_MESURE;
+            System.out.printf("1920x1080  %-22s %7.3f ms/frame%n", modes[mode], ms);
+        }
+    }
+
+    /**
+     * Bande passante texture : NB_TEXTURES textures 256² échantillonnées colonne par colonne, une texture
+     * différente par colonne d'écran (comme une map aux murs variés), en ARGB puis en index 8 bits traduits
+     * par la palette. Puis la frame complète sur une salle dont les murs portent ces identifiants.
+     */
+    private static void benchTexturesPalette() {
+        final int nbTextures = 8;
+        final int taille = 256;
+        BufferedImage[] images = new BufferedImage[nbTextures + 1];
+        for (int id = 1; id <= nbTextures; id++) {
+            images[id] = creerTextureBriques(taille, taille);
+            // teinte différente par texture pour que la palette soit réellement partagée
+            Graphics2D g2d = images[id].createGraphics();
+            g2d.setColor(new Color(Color.HSBtoRGB(id / (float) nbTextures, 0.6f, 0.9f) & 0x80FFFFFF, true));
+            g2d.fillRect(0, 0, taille, taille);
+            g2d.dispose();
+        }
+        BanqueTextures banque = BanqueTextures.depuisImages(images);
+
+        int[][] texturesArgb = new int[nbTextures][];
+        byte[][] texturesIndex = new byte[nbTextures][];
+        int[] palette = banque.getPalette();
+        for (int t = 0; t < nbTextures; t++) {
+            texturesIndex[t] = banque.getTexels(t + 1);
+            texturesArgb[t] = new int[taille * taille];
+            for (int i = 0; i < texturesArgb[t].length; i++) {
+                texturesArgb[t][i] = palette[texturesIndex[t][i] & 0xFF];
+            }
+        }
+        int[] ecran = new int[1920 * 1080];
+        for (boolean huitBits : new boolean[]{false, true}) {
+            for (int i = 0; i < FRAMES_CHAUFFE; i++) {
+                echantillonnerTextures(texturesArgb, texturesIndex, palette, huitBits, taille, ecran, 1920, 1080);
+            }
+            long debut = System.nanoTime();
+            for (int i = 0; i < FRAMES_MESURE; i++) {
+                echantillonnerTextures(texturesArgb, texturesIndex, palette, huitBits, taille, ecran, 1920, 1080);
+            }
+            double ms = (System.nanoTime() - debut) / 1_000_000.0 / FRAMES_MESURE;
+            System.out.printf("colonnes seules  %-24s %7.3f ms/frame  (%d Ko de texels)%n",
+                    huitBits ? "8 bits + palette" : "ARGB 32 bits", ms, nbTextures * taille * taille * (huitBits ? 1 : 4) / 1024);
+        }
+
+        MapBool salle = creerMapAleatoire(24, 0.03, 5);
+        java.util.Random random = new java.util.Random(3);
+        for (int y = 0; y < salle.getHeight(); y++) {
+            for (int x = 0; x < salle.getWIDTH(); x++) {
+                if (salle.isWall(x, y)) salle.setTexture(x, y, 1 + random.nextInt(nbTextures));
+            }
+        }
+        for (boolean huitBits : new boolean[]{false, true}) {
+            Raycasting raycasting = new Raycasting(salle, new Joueur(12.5, 12.5, 0.3));
+            raycasting.setProjectionPlanCamera(true);
+            raycasting.setWallTexture(images[1]);
+            raycasting.setTexturesMurs(huitBits ? banque : null);
+            double ms = mesurerRotation(raycasting, 12.5, 12.5);
+            System.out.printf("1920x1080 salle  %-24s %7.3f ms/frame%n",
+                    huitBits ? "8 bits, texture par case" : "ARGB 32 bits, 1 texture", ms);
+        }
+    }
+
+    private static void echantillonnerTextures(int[][] texturesArgb, byte[][] texturesIndex, int[] palette, boolean huitBits,
+                                               int taille, int[] ecran, int largeurEcran, int hauteurEcran) {
+        int pas = ((taille << 16) - 1) / hauteurEcran;
+        for (int x = 0; x < largeurEcran; x++) {
+            int t = x % texturesArgb.length;
+            int base = (int) ((long) x * taille / largeurEcran) * taille;
+            int pos = 0;
+            int index = x;
+            if (huitBits) {
+                byte[] texture = texturesIndex[t];
+                for (int y = 0; y < hauteurEcran; y++) {
+                    ecran[index] = palette[texture[base + (pos >>> 16)] & 0xFF];
+                    pos += pas;
+                    index += largeurEcran;
+                }
+            } else {
+                int[] texture = texturesArgb[t];
+                for (int y = 0; y < hauteurEcran; y++) {
+                    ecran[index] = texture[base + (pos >>> 16)];
+                    pos += pas;
+                    index += largeurEcran;
+                }
+            }
+        }
+    }
+
+    /**
+     * Scènes dominées par de longs couloirs (murs lointains de quelques pixels de haut), sans puis avec mipmaps.
+     * Empreinte mémoire : les colonnes des murs latéraux d'un couloir droit de 64 cases (géométrie exacte
+     * de la projection plan caméra) sont échantillonnées hors du moteur en comptant les lignes de cache
+     * de 64 octets touchées par frame. Temps : frames complètes du moteur, vue fixe dans l'axe d'un couloir
+     * jalonné de sprites, puis rotation sur place à un carrefour d'un quadrillage de couloirs.
+     */
+    private static void benchMipmaps() {
+        final int taille = 256;
+        BufferedImage image = creerTextureBriques(taille, taille);
+        int[] colonnes = new int[taille * taille];
+        for (int x = 0; x < taille; x++) {
+            for (int y = 0; y < taille; y++) {
+                colonnes[x * taille + y] = image.getRGB(x, y);
+            }
+        }
+        int[][] chaine = Mipmaps.construireChaine(colonnes, taille, taille);
+        int[] ecran = new int[1920 * 1080];
+        for (boolean avecMips : new boolean[]{false, true}) {
+            java.util.BitSet lignesCache = new java.util.BitSet();
+            long lignesLues = echantillonnerCouloir(chaine, taille, avecMips, ecran, 1920, 1080, lignesCache);
+            for (int i = 0; i < FRAMES_CHAUFFE; i++) {
+                echantillonnerCouloir(chaine, taille, avecMips, ecran, 1920, 1080, null);
+            }
+            long debut = System.nanoTime();
+            for (int i = 0; i < FRAMES_MESURE; i++) {
+                echantillonnerCouloir(chaine, taille, avecMips, ecran, 1920, 1080, null);
+            }
+            double ms = (System.nanoTime() - debut) / 1_000_000.0 / FRAMES_MESURE;
+            System.out.printf("couloir droit, colonnes seules  %-16s %7.3f ms/frame  %5d Ko distincts, %6d Ko lus colonne par colonne%n",
+                    avecMips ? "mipmaps" : "texture pleine", ms, lignesCache.cardinality() * 64 / 1024, lignesLues * 64 / 1024);
+        }
+
+        MapBool couloir = new MapBool(130, 3);
+        MapBool quadrillage = new MapBool(129, 129);
+        for (int y = 1; y < 128; y++) {
+            for (int x = 1; x < 128; x++) {
+                if (x % 8 != 4 && y % 8 != 4) quadrillage.setWall(x, y, true);
+            }
+        }
+        for (boolean avecMips : new boolean[]{false, true}) {
+            Raycasting raycasting = new Raycasting(couloir, new Joueur(1.5, 1.5, 0));
+            raycasting.setWallTexture(image);
+            raycasting.setProjectionPlanCamera(true);
+            raycasting.setMipmaps(avecMips);
+            for (int i = 1; i <= 12; i++) {
+                raycasting.addSprite(new entite.Sprite(1.5 + i * 8, 1.3 + (i % 2) * 0.4));
+            }
+            int[] framebuffer = new int[1920 * 1080];
+            for (int i = 0; i < FRAMES_CHAUFFE; i++) {
+                raycasting.renderFrame(framebuffer, 1920, 1080, 1.5, 1.5, Math.sin(i * 0.05) * 0.02);
+            }
+            long debut = System.nanoTime();
+            for (int i = 0; i < FRAMES_MESURE; i++) {
+                raycasting.renderFrame(framebuffer, 1920, 1080, 1.5, 1.5, Math.sin(i * 0.05) * 0.02);
+            }
+            double ms = (System.nanoTime() - debut) / 1_000_000.0 / FRAMES_MESURE;
+            System.out.printf("1920x1080 couloir + sprites     %-16s %7.3f ms/frame%n", avecMips ? "mipmaps" : "texture pleine", ms);
+
+            raycasting = new Raycasting(quadrillage, new Joueur(60.5, 60.5, 0));
+            raycasting.setWallTexture(image);
+            raycasting.setProjectionPlanCamera(true);
+            raycasting.setMipmaps(avecMips);
+            ms = mesurerRotation(raycasting, 60.5, 60.5);
+            System.out.printf("1920x1080 carrefour, rotation   %-16s %7.3f ms/frame%n", avecMips ? "mipmaps" : "texture pleine", ms);
+        }
+    }
+
+    /**
+     * Murs latéraux d'un couloir droit de largeur 1 et de 64 cases, caméra au centre dans l'axe (FOV 60°) :
+     * la colonne x voit le mur à la distance 0.5 / |rayDirY|, au point d'abscisse égale à cette distance.
+     * Marque dans lignesCache (si non null) chaque ligne de cache de 64 octets de texture lue, et renvoie
+     * le nombre de lignes lues en comptant chaque colonne à part (trafic mémoire sans réutilisation d'une
+     * colonne d'écran à l'autre).
+     */
+    private static long echantillonnerCouloir(int[][] chaine, int taille, boolean avecMips, int[] ecran,
+                                              int largeurEcran, int hauteurEcran, java.util.BitSet lignesCache) {
+        double plan = Math.tan(Math.toRadians(30));
+        long lignesLues = 0;
+        for (int x = 0; x < largeurEcran; x++) {
+            double rayDirY = plan * Math.abs(2.0 * x / largeurEcran - 1);
+            double distance = rayDirY > 0 ? Math.min(64, 0.5 / rayDirY) : 64;
+            int hauteurColonne = Math.max(1, (int) (hauteurEcran / distance));
+            int mip = avecMips ? Mipmaps.choisirNiveau(taille, hauteurColonne, chaine.length) : 0;
+            int tailleMip = Mipmaps.taille(taille, mip);
+            int[] texture = chaine[mip];
+            int base = (int) ((distance - Math.floor(distance)) * tailleMip) * tailleMip;
+            // décalage propre à chaque niveau pour que les lignes de cache de niveaux différents soient distinctes
+            int decalageCache = mip * taille * taille;
+
+            int drawStartRaw = hauteurEcran / 2 - hauteurColonne / 2;
+            int drawStart = Math.max(0, drawStartRaw);
+            int drawEnd = Math.min(hauteurEcran - 1, drawStartRaw + hauteurColonne);
+            int pas = ((tailleMip << 16) - 1) / hauteurColonne;
+            int pos = (drawStart - drawStartRaw) * pas;
+            int index = drawStart * largeurEcran + x;
+            int derniereLigne = -1;
+            for (int y = drawStart; y <= drawEnd; y++) {
+                int texel = base + (pos >>> 16);
+                ecran[index] = texture[texel];
+                if (lignesCache != null) {
+                    int ligne = (decalageCache + texel) >>> 4; // 16 int par ligne de 64 octets
+                    lignesCache.set(ligne);
+                    if (ligne != derniereLigne) lignesLues++;
+                    derniereLigne = ligne;
+                }
+                pos += pas;
+                index += largeurEcran;
+            }
+        }
+        return lignesLues;
+    }
+
+    /**
+     * Temps de frame et taux de rayons servis par le panorama, en rotation pure puis avec un petit
+     * déplacement toutes les 8 frames (visée à la souris entrecoupée de pas), sur la salle 24x24
+     * et sur l'arène ouverte 256x256 où le DDA parcourt de longues distances
+     */
+    private static void benchPanorama() {
+        MapBool salle = creerMapAleatoire(24, 0.03, 5);
+        MapBool arene = creerMapAleatoire(256, 0.0005, 11);
+        for (boolean surArene : new boolean[]{false, true}) {
+            MapBool map = surArene ? arene : salle;
+            double centre = map.getWIDTH() / 2 + 0.5;
+            for (int framesParPas : new int[]{0, 8}) {
+                for (boolean avecPanorama : new boolean[]{false, true}) {
+                    Raycasting raycasting = new Raycasting(map, new Joueur(centre, centre, 0));
+                    raycasting.setWallTexture(creerTextureBriques(64, 64));
+                    raycasting.setProjectionPlanCamera(true);
+                    raycasting.setPanorama(avecPanorama);
+                    int[] framebuffer = new int[1920 * 1080];
+                    long debut = 0;
+                    for (int i = 0; i < FRAMES_CHAUFFE + FRAMES_MESURE; i++) {
+                        if (i == FRAMES_CHAUFFE) {
+                            debut = System.nanoTime();
+                            raycasting.resetStatistiquesPanorama();
+                        }
+                        double x = framesParPas == 0 ? centre : centre + (i / framesParPas % 20) * 0.05;
+                        raycasting.renderFrame(framebuffer, 1920, 1080, x, centre, i * 0.03);
+                    }
+                    double ms = (System.nanoTime() - debut) / 1_000_000.0 / FRAMES_MESURE;
+                    System.out.printf("1920x1080 %-6s %-20s %-10s %7.3f ms/frame  %5.1f %% rayons servis%n",
+                            surArene ? "arène" : "salle", framesParPas == 0 ? "rotation pure" : "pas toutes 8 frames",
+                            avecPanorama ? "panorama" : "DDA", ms, 100 * raycasting.getTauxPanorama());
+                }
+            }
+        }
+    }
+
+    /**
+     * Distance approximative de chaque pixel (celle du sol/plafond de sa ligne) pour le brouillard naïf
+     */
+    private static double[] profondeursEcran(int largeur, int hauteur) {
+        double[] profondeurs = new double[largeur * hauteur];
+        for (int y = 0; y < hauteur; y++) {
+            int p = Math.abs(y - hauteur / 2);
+            double distance = p == 0 ? 1000 : 0.5 * hauteur / p;
+            java.util.Arrays.fill(profondeurs, y * largeur, (y + 1) * largeur, distance);
+        }
+        return profondeurs;
+    }
+
+    private static void brouillardFlottant(int[] pixels, double[] profondeurs, double distanceBrouillard) {
+        for (int i = 0; i < pixels.length; i++) {
+            double lumiere = Math.max(0, 1 - profondeurs[i] / distanceBrouillard);
+            int c = pixels[i];
+            int r = (int) (((c >> 16) & 0xFF) * lumiere);
+            int g = (int) (((c >> 8) & 0xFF) * lumiere);
+            int b = (int) ((c & 0xFF) * lumiere);
+            pixels[i] = 0xFF000000 | (r << 16) | (g << 8) | b;
+        }
+    }
+
+    /**
+     * Temps moyen d'une frame 1080p, la caméra tournant sur place
+     */
+    private static double mesurerRotation(Raycasting raycasting, double x, double y) {
+        int[] framebuffer = new int[1920 * 1080];
+        for (int i = 0; i < FRAMES_CHAUFFE; i++) {
+            raycasting.renderFrame(framebuffer, 1920, 1080, x, y, i * 0.03);
+        }
+        long debut = System.nanoTime();
+        for (int i = 0; i < FRAMES_MESURE; i++) {
+            raycasting.renderFrame(framebuffer, 1920, 1080, x, y, i * 0.03);
+        }
+        return (System.nanoTime() - debut) / 1_000_000.0 / FRAMES_MESURE;
+    }
+
+    static MapBool creerMapAleatoire(int taille, double densiteMurs, long graine) {
+        MapBool map = new MapBool(taille, taille);
+        java.util.Random random = new java.util.Random(graine);
+        for (int y = 1; y < taille - 1; y++) {
+            for (int x = 1; x < taille - 1; x++) {
+                if (random.nextDouble() < densiteMurs) {
+                    map.setWall(x, y, true);
+                }
+            }
+        }
+        return map;
+    }
+
+    private static long ddaRayons(MapBool map, boolean[][] grille, double[] rayons, boolean compacte) {
+        long[] bits = map.getBits();
+        int motsParLigne = map.getMotsParLigne();
+        int largeur = map.getWIDTH();
+        int hauteur = map.getHeight();
+        long cases = 0;
+        for (int i = 0; i < rayons.length; i += 3) {
+            double posX = rayons[i];
+            double posY = rayons[i + 1];
+            double dirX = Math.cos(rayons[i + 2]);
+            double dirY = Math.sin(rayons[i + 2]);
+            double deltaX = Math.abs(1 / dirX);
+            double deltaY = Math.abs(1 / dirY);
+            int mapX = (int) posX;
+            int mapY = (int) posY;
+            int stepX = dirX < 0 ? -1 : 1;
+            int stepY = dirY < 0 ? -1 : 1;
+            double sideX = dirX < 0 ? (posX - mapX) * deltaX : (mapX + 1.0 - posX) * deltaX;
+            double sideY = dirY < 0 ? (posY - mapY) * deltaY : (mapY + 1.0 - posY) * deltaY;
+            while (true) {
+                if (sideX < sideY) {
+                    sideX += deltaX;
+                    mapX += stepX;
+                } else {
+                    sideY += deltaY;
+                    mapY += stepY;
+                }
+                cases++;
+                if (mapX < 0 || mapX >= largeur || mapY < 0 || mapY >= hauteur) break;
+                boolean mur = compacte
+                        ? ((bits[mapY * motsParLigne + (mapX >>> 6)] >>> mapX) & 1L) != 0
+                        : grille[mapY][mapX];
+                if (mur) break;
+            }
+        }
+        return cases;
+    }
+
+    static Raycasting creerRaycastingMurProche() {
+        Raycasting raycasting = new Raycasting(new MapBool(), new Joueur(CAMERA_X, CAMERA_Y, CAMERA_ANGLE));
+        raycasting.setProjectionPlanCamera(true);
+        return raycasting;
+    }
+
+    static double mesurerFrame(Raycasting raycasting, int largeur, int hauteur) {
+        int[] framebuffer = new int[largeur * hauteur];
+        for (int i = 0; i < FRAMES_CHAUFFE; i++) {
+            raycasting.renderFrame(framebuffer, largeur, hauteur, CAMERA_X, CAMERA_Y, CAMERA_ANGLE);
+        }
+        long debut = System.nanoTime();
+        for (int i = 0; i < FRAMES_MESURE; i++) {
+            raycasting.renderFrame(framebuffer, largeur, hauteur, CAMERA_X, CAMERA_Y, CAMERA_ANGLE);
+        }
+        return (System.nanoTime() - debut) / 1_000_000.0 / FRAMES_MESURE;
+    }
+
+    /**
+     * Texture procédurale (briques) pour ne pas dépendre des assets
+     */
+    static BufferedImage creerTextureBriques(int largeur, int hauteur) {
+        BufferedImage image = new BufferedImage(largeur, hauteur, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setColor(new Color(170, 60, 40));
+        g2d.fillRect(0, 0, largeur, hauteur);
+        g2d.setColor(new Color(200, 200, 190));
+        int hauteurBrique = Math.max(2, hauteur / 8);
+        int largeurBrique = Math.max(4, largeur / 4);
+        for (int y = 0; y < hauteur; y += hauteurBrique) {
+            g2d.drawLine(0, y, largeur, y);
+            int decalage = (y / hauteurBrique) % 2 == 0 ? 0 : largeurBrique / 2;
+            for (int x = decalage; x < largeur; x += largeurBrique) {
+                g2d.drawLine(x, y, x, y + hauteurBrique);
+            }
+        }
+        g2d.dispose();
+        return image;
+    }
+}
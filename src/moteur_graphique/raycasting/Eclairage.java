@@ -0,0 +1,78 @@
+package moteur_graphique.raycasting;
+
+import java.awt.Color;
+
+/**
+ * Éclairage par tables d'ombrage pré-calculées (à la manière des colormaps de Doom) : NIVEAUX niveaux
+ * de lumière, le niveau étant choisi par tranche de distance. Au niveau 0 la couleur est intacte,
+ * au dernier niveau elle est entièrement celle du brouillard.
+ * <p>
+ * Pour chaque niveau, la table donne la part de couleur conservée (sur 256) et la part de brouillard
+ * déjà mise à l'échelle : ombrer un texel coûte deux multiplications (rouge et bleu ensemble, puis vert)
+ * et une addition, sans lecture mémoire dépendante du texel. Une colonne de mur ou un sprite
+ * (distance constante) choisit son niveau une fois puis ombre chaque texel lu ; les palettes 8 bits
+ * et les petites textures sont plutôt copiées une fois par niveau (ombrerTexture).
+ */
+public final class Eclairage {
+
+    public static final int NIVEAUX = 32;
+
+    private final int[] facteurs = new int[NIVEAUX];    // part de la couleur conservée, de 256 à 0
+    private final int[] brouillards = new int[NIVEAUX]; // part du brouillard, canaux à leur place en RGB
+    private final double niveauxParCase;
+
+    /**
+     * @param couleurBrouillard Couleur vers laquelle tendent les surfaces lointaines (noir = obscurité)
+     * @param distanceBrouillard Distance (en cases) à partir de laquelle tout est couleur de brouillard
+     */
+    public Eclairage(Color couleurBrouillard, double distanceBrouillard) {
+        if (distanceBrouillard <= 0) {
+            throw new IllegalArgumentException("Distance de brouillard invalide: " + distanceBrouillard);
+        }
+        this.niveauxParCase = (NIVEAUX - 1) / distanceBrouillard;
+
+        for (int niveau = 0; niveau < NIVEAUX; niveau++) {
+            int facteur = (int) Math.round(256.0 * (NIVEAUX - 1 - niveau) / (NIVEAUX - 1));
+            facteurs[niveau] = facteur;
+            // couleur * facteur / 256 (tronqué) + brouillard (arrondi) ne dépasse jamais 255 par canal
+            brouillards[niveau] = partBrouillard(couleurBrouillard.getRed(), facteur) << 16
+                    | partBrouillard(couleurBrouillard.getGreen(), facteur) << 8
+                    | partBrouillard(couleurBrouillard.getBlue(), facteur);
+        }
+    }
+
+    private static int partBrouillard(int brouillard, int facteur) {
+        return (int) Math.round(brouillard * (256 - facteur) / 256.0);
+    }
+
+    /**
+     * Tranche de distance : niveau de lumière à utiliser pour une surface à cette distance
+     */
+    public int getNiveau(double distance) {
+        double niveau = distance * niveauxParCase;
+        return niveau >= NIVEAUX - 1 ? NIVEAUX - 1 : (int) niveau;
+    }
+
+    /**
+     * Couleur ombrée au niveau donné (alpha conservé)
+     */
+    public int ombrer(int argb, int niveau) {
+        int facteur = facteurs[niveau];
+        int rougeBleu = (((argb & 0xFF00FF) * facteur) >>> 8) & 0xFF00FF;
+        int vert = (((argb & 0x00FF00) * facteur) >>> 8) & 0x00FF00;
+        return (argb & 0xFF000000) | (rougeBleu + vert + brouillards[niveau]);
+    }
+
+    /**
+     * Copies d'une palette ou d'une texture ombrées à chaque niveau (NIVEAUX fois sa taille en mémoire)
+     */
+    public int[][] ombrerTexture(int[] couleurs) {
+        int[][] niveaux = new int[NIVEAUX][couleurs.length];
+        for (int niveau = 0; niveau < NIVEAUX; niveau++) {
+            for (int i = 0; i < couleurs.length; i++) {
+                niveaux[niveau][i] = ombrer(couleurs[i], niveau);
+            }
+        }
+        return niveaux;
+    }
+}
@@ -5,25 +5,69 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 public class MapBool {
     private int width;
     private int height;
 
-    private boolean[][] grid; // 1 = mur | 0 = vide
+    // Grille compacte : 1 bit par case (1 = mur | 0 = vide), lignes de motsParLigne longs consécutifs.
+    // La case (x, y) est le bit (x & 63) du mot y * motsParLigne + (x >>> 6).
+    private long[] bits;
+    private int motsParLigne;
+
+    // Texture de chaque case (index y * largeur + x) : 0 = vide, 1 à 35 = texture du mur ('1'-'9' puis 'A'-'Z'
+    // dans le fichier). Alloué seulement si un mur utilise une autre texture que la 1 : sinon, tout mur a la texture 1.
+    public static final int MAX_TEXTURE_ID = 35;
+    private byte[] texturesCases;
+
+    // Champ de distance (Chebyshev, en cases) de chaque case au mur le plus proche, saturé à DISTANCE_MAX.
+    // Les cases hors de la map comptent comme des murs. Construit à la première demande puis tenu à jour par setWall,
+    // sur place et seulement autour de la case modifiée (voir mettreAJourDistances pour les lectures concurrentes).
+    public static final int DISTANCE_MAX = 64;
+    private volatile byte[] distancesMurs;
+    // Travail des mises à jour (fenêtre de côté 2 * DISTANCE_MAX + 1 centrée sur la case modifiée), alloué au
+    // premier retrait de mur
+    private static final int COTE_FENETRE = 2 * DISTANCE_MAX + 1;
+    private int[] valeursFenetre; // nouvelle distance des cases à recalculer, -1 ailleurs
+    private boolean[] faitesFenetre;
+    private int[] fileCases;
+    private int[] ordreCases;
+    private int[] fileRelaxees;
+
+    // Incrémentée à chaque modification des murs : les caches du rendu comparent la version qu'ils ont vue
+    private final AtomicInteger version = new AtomicInteger();
+
+    // Thread unique (démon) pour les chargements de map en arrière-plan
+    private static final ExecutorService CHARGEMENT = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "chargement-map");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     public MapBool() {
-        width = 10;
-        height = 10;
-        grid = new boolean[height][width];
+        this(10, 10);
+    }
+
+    /**
+     * Map vide de la taille donnée, entourée de murs
+     */
+    public MapBool(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Dimensions invalides: " + width + "x" + height);
+        }
+        allouerGrille(width, height);
+        for (int x = 0; x < width; x++) {
+            setBit(x, 0, true);
+            setBit(x, height - 1, true);
+        }
         for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                if (y == 0 || y == height - 1 || x == 0 || x == width - 1) {
-                    grid[y][x] = true; // mur
-                } else {
-                    grid[y][x] = false; // vide
-                }
-            }
+            setBit(0, y, true);
+            setBit(width - 1, y, true);
         }
     }
 
@@ -31,6 +75,57 @@ public class MapBool {
         loadMap(fichier);
     }
 
+    /**
+     * Map construite sur une grille compacte existante (bits peut être null pour un stockage
+     * alternatif : la sous-classe redéfinit alors isWall)
+     */
+    protected MapBool(int width, int height, long[] bits) {
+        this.width = width;
+        this.height = height;
+        this.motsParLigne = (width + 63) >>> 6;
+        this.bits = bits;
+    }
+
+    /**
+     * Map construite sur une grille compacte déjà remplie (même disposition que getBits), sans copie
+     */
+    public static MapBool depuisBits(int width, int height, long[] bits) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Dimensions invalides: " + width + "x" + height);
+        }
+        if (bits.length != ((width + 63) >>> 6) * height) {
+            throw new IllegalArgumentException("Grille compacte de " + bits.length + " mots pour une map " + width + "x" + height);
+        }
+        return new MapBool(width, height, bits);
+    }
+
+    /**
+     * Idem avec la texture de chaque case (index y * largeur + x, null si tous les murs ont la texture 1)
+     */
+    public static MapBool depuisBits(int width, int height, long[] bits, byte[] texturesCases) {
+        MapBool map = depuisBits(width, height, bits);
+        if (texturesCases != null && texturesCases.length != width * height) {
+            throw new IllegalArgumentException("Textures de " + texturesCases.length + " cases pour une map " + width + "x" + height);
+        }
+        map.texturesCases = texturesCases;
+        return map;
+    }
+
+    /**
+     * Lecture et validation du fichier sur le thread de chargement : le future est complété
+     * par la map prête, ou exceptionnellement si le fichier est illisible ou invalide.
+     */
+    public static CompletableFuture<MapBool> chargerAsync(String fichier) {
+        return chargerAsync(() -> new MapBool(fichier));
+    }
+
+    /**
+     * Exécute un chargement quelconque (paquet compilé, texte...) sur le thread de chargement des maps
+     */
+    public static <T> CompletableFuture<T> chargerAsync(Supplier<T> chargement) {
+        return CompletableFuture.supplyAsync(chargement, CHARGEMENT);
+    }
+
     private void loadMap(String fichier) {
         List<String> lines = readMapFile(fichier);
         validateMapDimensions(lines, fichier);
@@ -86,26 +181,82 @@ public class MapBool {
     private void validateRowCharacters(String row, int y) {
         for (int x = 0; x < row.length(); x++) {
             char c = row.charAt(x);
-            if (c != '0' && c != '1') {
+            if (c != '0' && idTexture(c) < 0) {
                 throw new IllegalArgumentException(
-                        "Caractère invalide '" + c + "' à (x=" + x + ", y=" + y + "). Attendu 0 ou 1."
+                        "Caractère invalide '" + c + "' à (x=" + x + ", y=" + y + "). Attendu 0 (vide), 1-9 ou A-Z (mur)."
                 );
             }
         }
     }
 
     private void buildMap(List<String> lines) {
-        this.grid = new boolean[this.height][this.width];
+        allouerGrille(this.width, this.height);
+        // textures par case seulement si un mur n'a pas la texture 1 (rempli ici sans passer par isWall)
+        boolean texturesMultiples = lines.stream().anyMatch(row -> row.chars().anyMatch(c -> c != '0' && c != '1'));
+        if (texturesMultiples) {
+            texturesCases = new byte[width * height];
+        }
         for (int y = 0; y < this.height; y++) {
             String row = lines.get(y);
             for (int x = 0; x < this.width; x++) {
-                this.grid[y][x] = (row.charAt(x) == '1');
+                char c = row.charAt(x);
+                if (c != '0') {
+                    setBit(x, y, true);
+                    if (texturesMultiples) {
+                        texturesCases[y * width + x] = (byte) idTexture(c);
+                    }
+                }
             }
         }
     }
 
-    public boolean[][] getGrid() {
-        return grid;
+    /**
+     * Identifiant de texture d'un caractère de mur du fichier ('1'-'9' = 1-9, 'A'-'Z' = 10-35), -1 sinon
+     */
+    public static int idTexture(char c) {
+        if (c >= '1' && c <= '9') return c - '0';
+        if (c >= 'A' && c <= 'Z') return c - 'A' + 10;
+        return -1;
+    }
+
+    private byte[] getOuAllouerTexturesCases() {
+        if (texturesCases == null) {
+            texturesCases = new byte[width * height];
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    if (isWall(x, y)) texturesCases[y * width + x] = 1;
+                }
+            }
+        }
+        return texturesCases;
+    }
+
+    private void allouerGrille(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.motsParLigne = (width + 63) >>> 6;
+        this.bits = new long[motsParLigne * height];
+    }
+
+    private void setBit(int x, int y, boolean mur) {
+        int index = y * motsParLigne + (x >>> 6);
+        if (mur) {
+            bits[index] |= 1L << x;
+        } else {
+            bits[index] &= ~(1L << x);
+        }
+    }
+
+    /**
+     * Grille compacte partagée (lecture seule) : bit (x & 63) du mot y * getMotsParLigne() + (x >>> 6).
+     * null si la map n'est pas entièrement en mémoire (passer alors par isWall).
+     */
+    public long[] getBits() {
+        return bits;
+    }
+
+    public int getMotsParLigne() {
+        return motsParLigne;
     }
 
     public int getWIDTH() {
@@ -119,6 +270,291 @@ public class MapBool {
     // Méthode pour faire les tests
     public boolean isWall(int x, int y) {
         if (x < 0 || x >= width || y < 0 || y >= height) return true;
-        return grid[y][x];
+        // le décalage d'un long n'utilise que les 6 bits de poids faible de x
+        return ((bits[y * motsParLigne + (x >>> 6)] >>> x) & 1L) != 0;
+    }
+
+    public void setWall(int x, int y, boolean mur) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException("Case hors de la map: (" + x + ", " + y + ")");
+        }
+        if (isWall(x, y) == mur) return;
+        setBit(x, y, mur);
+        if (texturesCases != null) {
+            texturesCases[y * width + x] = (byte) (mur ? 1 : 0);
+        }
+        mettreAJourDistances(x, y, mur);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Met à jour le champ de distance autour de la case modifiée, sans copie du champ : seules les cases
+     * dont la distance change sont visitées. Les rayons d'un rendu en cours peuvent lire le champ pendant
+     * l'écriture : un ajout ne fait que baisser des valeurs (une valeur pas encore écrite est celle de la map
+     * d'avant), un retrait écrit directement les valeurs finales, plus grandes, et une valeur pas encore
+     * écrite reste trop petite, ce qui ne fait que raccourcir un saut. La réaffectation du champ volatile
+     * publie les nouvelles valeurs aux rendus suivants.
+     */
+    private synchronized void mettreAJourDistances(int x, int y, boolean mur) {
+        byte[] distances = distancesMurs;
+        if (distances == null) return;
+        if (mur) {
+            propagerMur(distances, x, y);
+        } else {
+            recalculerApresRetrait(distances, x, y);
+        }
+        distancesMurs = distances;
+    }
+
+    /**
+     * Mur ajouté : parcours en largeur depuis la case, arrêté aux cases qu'il ne rapproche pas d'un mur
+     * (une case non améliorée n'a pas de voisine plus loin qui le serait)
+     */
+    private void propagerMur(byte[] distances, int x, int y) {
+        int[] file = getFileCases();
+        int debut = 0;
+        int fin = 0;
+        distances[y * width + x] = 0;
+        file[fin++] = y * width + x;
+        while (debut < fin) {
+            int index = file[debut++];
+            int cx = index % width;
+            int cy = index / width;
+            int d = (distances[index] & 0xFF) + 1;
+            for (int vy = Math.max(0, cy - 1); vy <= Math.min(height - 1, cy + 1); vy++) {
+                for (int vx = Math.max(0, cx - 1); vx <= Math.min(width - 1, cx + 1); vx++) {
+                    int voisine = vy * width + vx;
+                    if (d < (distances[voisine] & 0xFF)) {
+                        distances[voisine] = (byte) d;
+                        file[fin++] = voisine;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Mur retiré : seules les cases dont ce mur était le plus proche (distance égale à leur écart avec lui)
+     * peuvent s'éloigner. Cette zone, à moins de DISTANCE_MAX de la case, est recalculée depuis ses bords
+     * (cases voisines hors zone, dont la distance ne change pas, et bords de la map).
+     */
+    private void recalculerApresRetrait(byte[] distances, int x, int y) {
+        if (valeursFenetre == null) {
+            valeursFenetre = new int[COTE_FENETRE * COTE_FENETRE];
+            java.util.Arrays.fill(valeursFenetre, -1);
+            faitesFenetre = new boolean[COTE_FENETRE * COTE_FENETRE];
+            ordreCases = new int[COTE_FENETRE * COTE_FENETRE];
+            fileRelaxees = new int[COTE_FENETRE * COTE_FENETRE];
+        }
+        int[] zone = getFileCases();
+        int x0 = x - DISTANCE_MAX;
+        int y0 = y - DISTANCE_MAX;
+
+        // 1. Zone : cases à distance d du mur retiré dont la distance valait d, atteintes anneau par anneau
+        int nbZone = 0;
+        zone[nbZone++] = y * width + x;
+        valeursFenetre[DISTANCE_MAX * COTE_FENETRE + DISTANCE_MAX] = 0;
+        for (int i = 0; i < nbZone; i++) {
+            int cx = zone[i] % width;
+            int cy = zone[i] / width;
+            int anneau = Math.max(Math.abs(cx - x), Math.abs(cy - y)) + 1;
+            if (anneau > DISTANCE_MAX) continue;
+            for (int vy = Math.max(0, cy - 1); vy <= Math.min(height - 1, cy + 1); vy++) {
+                for (int vx = Math.max(0, cx - 1); vx <= Math.min(width - 1, cx + 1); vx++) {
+                    int local = (vy - y0) * COTE_FENETRE + (vx - x0);
+                    if (Math.max(Math.abs(vx - x), Math.abs(vy - y)) == anneau && valeursFenetre[local] < 0
+                            && (distances[vy * width + vx] & 0xFF) == anneau) {
+                        valeursFenetre[local] = 0;
+                        zone[nbZone++] = vy * width + vx;
+                    }
+                }
+            }
+        }
+
+        // 2. Valeur de départ : bords de la map et voisines hors zone (distance déjà juste)
+        int[] nbParValeur = new int[DISTANCE_MAX + 2];
+        for (int i = 0; i < nbZone; i++) {
+            int cx = zone[i] % width;
+            int cy = zone[i] / width;
+            int d = Math.min(Math.min(Math.min(cx + 1, width - cx), Math.min(cy + 1, height - cy)), DISTANCE_MAX);
+            for (int vy = Math.max(0, cy - 1); vy <= Math.min(height - 1, cy + 1); vy++) {
+                for (int vx = Math.max(0, cx - 1); vx <= Math.min(width - 1, cx + 1); vx++) {
+                    if (!dansFenetre(vx - x0, vy - y0) || valeursFenetre[(vy - y0) * COTE_FENETRE + (vx - x0)] < 0) {
+                        d = Math.min(d, (distances[vy * width + vx] & 0xFF) + 1);
+                    }
+                }
+            }
+            valeursFenetre[(cy - y0) * COTE_FENETRE + (cx - x0)] = d;
+            nbParValeur[d + 1]++;
+        }
+        // tri par valeur de départ (comptage)
+        for (int v = 1; v < nbParValeur.length; v++) {
+            nbParValeur[v] += nbParValeur[v - 1];
+        }
+        for (int i = 0; i < nbZone; i++) {
+            int local = (zone[i] / width - y0) * COTE_FENETRE + (zone[i] % width - x0);
+            ordreCases[nbParValeur[valeursFenetre[local]]++] = local;
+        }
+
+        // 3. Plus courts chemins à pas unitaire dans la zone : fusion des départs triés et de la file des
+        // cases relâchées (croissante), chaque case est figée à sa première sortie
+        int suivant = 0;
+        int debut = 0;
+        int fin = 0;
+        while (suivant < nbZone || debut < fin) {
+            int local;
+            if (debut == fin || (suivant < nbZone
+                    && valeursFenetre[ordreCases[suivant]] <= valeursFenetre[fileRelaxees[debut]])) {
+                local = ordreCases[suivant++];
+            } else {
+                local = fileRelaxees[debut++];
+            }
+            if (faitesFenetre[local]) continue;
+            faitesFenetre[local] = true;
+            int d = valeursFenetre[local] + 1;
+            int lx = local % COTE_FENETRE;
+            int ly = local / COTE_FENETRE;
+            for (int vy = Math.max(0, ly - 1); vy <= Math.min(COTE_FENETRE - 1, ly + 1); vy++) {
+                for (int vx = Math.max(0, lx - 1); vx <= Math.min(COTE_FENETRE - 1, lx + 1); vx++) {
+                    int voisine = vy * COTE_FENETRE + vx;
+                    if (!faitesFenetre[voisine] && d < valeursFenetre[voisine]) {
+                        valeursFenetre[voisine] = d;
+                        fileRelaxees[fin++] = voisine;
+                    }
+                }
+            }
+        }
+
+        // 4. Écriture des valeurs finales et remise à zéro de la fenêtre
+        for (int i = 0; i < nbZone; i++) {
+            int local = (zone[i] / width - y0) * COTE_FENETRE + (zone[i] % width - x0);
+            distances[zone[i]] = (byte) valeursFenetre[local];
+            valeursFenetre[local] = -1;
+            faitesFenetre[local] = false;
+        }
+    }
+
+    private static boolean dansFenetre(int lx, int ly) {
+        return lx >= 0 && lx < COTE_FENETRE && ly >= 0 && ly < COTE_FENETRE;
+    }
+
+    private int[] getFileCases() {
+        if (fileCases == null) {
+            fileCases = new int[COTE_FENETRE * COTE_FENETRE];
+        }
+        return fileCases;
+    }
+
+    /**
+     * Numéro de version des murs et textures (change à chaque setWall / setTexture effectif)
+     */
+    public int getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Texture du mur de la case (0 si vide ; les cases hors de la map sont des murs de texture 1)
+     */
+    public int getTextureId(int x, int y) {
+        if (x < 0 || x >= getWIDTH() || y < 0 || y >= getHeight()) return 1;
+        if (texturesCases == null) return isWall(x, y) ? 1 : 0;
+        return texturesCases[y * width + x];
+    }
+
+    /**
+     * Place un mur de la texture donnée (1 à MAX_TEXTURE_ID) sur la case
+     */
+    public void setTexture(int x, int y, int textureId) {
+        if (textureId < 1 || textureId > MAX_TEXTURE_ID) {
+            throw new IllegalArgumentException("Texture invalide: " + textureId + " (attendu 1 à " + MAX_TEXTURE_ID + ")");
+        }
+        setWall(x, y, true);
+        if (textureId != 1 || texturesCases != null) {
+            getOuAllouerTexturesCases()[y * width + x] = (byte) textureId;
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Textures des cases partagées (lecture seule, index y * largeur + x), null si tous les murs ont la texture 1
+     */
+    public byte[] getTexturesCases() {
+        return texturesCases;
+    }
+
+    /**
+     * Champ de distance au mur le plus proche (index y * largeur + x, valeur non signée : 0 = mur,
+     * d = aucun mur à moins de d cases en distance de Chebyshev). Sert à sauter les zones vides dans le DDA.
+     * Le premier appel le construit : le faire hors du rendu (Raycasting.setSautEspaceVide s'en charge).
+     * Null si la map n'en a pas (MapBoolPaginee).
+     */
+    public byte[] getDistancesMurs() {
+        byte[] distances = distancesMurs;
+        if (distances == null) {
+            distances = construireDistances();
+        }
+        return distances;
+    }
+
+    private synchronized byte[] construireDistances() {
+        if (distancesMurs == null) {
+            byte[] distances = new byte[width * height];
+            calculerDistances(distances);
+            distancesMurs = distances;
+        }
+        return distancesMurs;
+    }
+
+    /**
+     * Transformée de distance de Chebyshev de toute la map en deux passes (masque 3x3)
+     */
+    private void calculerDistances(byte[] distances) {
+        int x0 = 0;
+        int y0 = 0;
+        int x1 = width - 1;
+        int y1 = height - 1;
+
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
+                int d;
+                if (isWall(x, y)) {
+                    d = 0;
+                } else {
+                    // distance aux bords (l'extérieur de la map est un mur)
+                    d = Math.min(Math.min(x + 1, width - x), Math.min(y + 1, height - y));
+                    d = Math.min(d, DISTANCE_MAX);
+                }
+                distances[y * width + x] = (byte) d;
+            }
+        }
+        // Passe avant (haut-gauche vers bas-droite)
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
+                int d = distance(distances, x, y);
+                if (d == 0) continue;
+                d = Math.min(d, distance(distances, x - 1, y - 1) + 1);
+                d = Math.min(d, distance(distances, x, y - 1) + 1);
+                d = Math.min(d, distance(distances, x + 1, y - 1) + 1);
+                d = Math.min(d, distance(distances, x - 1, y) + 1);
+                distances[y * width + x] = (byte) d;
+            }
+        }
+        // Passe arrière (bas-droite vers haut-gauche)
+        for (int y = y1; y >= y0; y--) {
+            for (int x = x1; x >= x0; x--) {
+                int d = distance(distances, x, y);
+                if (d == 0) continue;
+                d = Math.min(d, distance(distances, x + 1, y + 1) + 1);
+                d = Math.min(d, distance(distances, x, y + 1) + 1);
+                d = Math.min(d, distance(distances, x - 1, y + 1) + 1);
+                d = Math.min(d, distance(distances, x + 1, y) + 1);
+                distances[y * width + x] = (byte) d;
+            }
+        }
+    }
+
+    private int distance(byte[] distances, int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) return 0;
+        return distances[y * width + x] & 0xFF;
     }
 }
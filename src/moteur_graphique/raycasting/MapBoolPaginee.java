@@ -0,0 +1,338 @@
+package moteur_graphique.raycasting;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Map découpée en tuiles de 64x64 cases, lue dans un fichier projeté en mémoire.
+ * Seules les tuiles récemment consultées sont décodées dans le tas (ensemble résident borné, remplacement
+ * par horloge, proche de LRU), l'ouverture ne lit que l'en-tête : une map de 32k x 32k s'ouvre instantanément.
+ * <p>
+ * Une tuile décodée n'est plus jamais modifiée : isWall la lit sans verrou depuis les threads du rendu
+ * parallèle, même si elle est évincée entre-temps. Seul le décodage d'une tuile absente prend le verrou.
+ * <p>
+ * Format du fichier (little endian) :
+ * en-tête "MBTU", version, largeur, hauteur, puis les tuiles ligne de tuiles par ligne de tuiles.
+ * Une tuile = 64 longs, le long r contient la ligne r de la tuile (bit x & 63 = case x).
+ * Une ligne de tuile correspond donc exactement à un mot de la grille compacte de MapBool.
+ * <p>
+ * Map en lecture seule : setWall et setTexture lèvent UnsupportedOperationException, et il n'y a pas de
+ * champ de distance (getDistancesMurs renvoie null). Seule la présence des murs est stockée,
+ * tous les murs ont la texture 1.
+ */
+public class MapBoolPaginee extends MapBool {
+
+    public static final int MAGIC = 0x5554424D; // "MBTU"
+    public static final int VERSION = 1;
+    public static final int TAILLE_TUILE = 64;
+    public static final int OCTETS_TUILE = TAILLE_TUILE * Long.BYTES;
+    public static final int TAILLE_ENTETE = 16;
+    public static final int TUILES_RESIDENTES_DEFAUT = 1024; // 512 Ko de tuiles décodées
+
+    private final ByteBuffer donnees;
+    private final int debutTuiles;
+    private final int largeur;
+    private final int hauteur;
+    private final int tuilesParLigne;
+
+    private final int maxTuilesResidentes;
+    private final AtomicReferenceArray<long[]> tuiles; // par index de tuile, null si non décodée
+    private final byte[] referencees; // bit de seconde chance de l'horloge, posé sans verrou à chaque lecture
+    private final int[] residentes;   // index des tuiles décodées, parcourus par l'aiguille de l'horloge
+    private int nbResidentes = 0;
+    private int aiguille = 0;
+    private long nbChargements = 0;
+
+    /**
+     * @param donnees Buffer contenant la grille en tuiles (typiquement projeté en mémoire)
+     * @param debutTuiles Position de la première tuile dans le buffer
+     */
+    public MapBoolPaginee(ByteBuffer donnees, int debutTuiles, int largeur, int hauteur, int maxTuilesResidentes) {
+        super(largeur, hauteur, null);
+        if (maxTuilesResidentes <= 0) {
+            throw new IllegalArgumentException("Nombre de tuiles résidentes invalide: " + maxTuilesResidentes);
+        }
+        this.donnees = donnees.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.debutTuiles = debutTuiles;
+        this.largeur = largeur;
+        this.hauteur = hauteur;
+        this.tuilesParLigne = (largeur + TAILLE_TUILE - 1) / TAILLE_TUILE;
+
+        long octetsAttendus = debutTuiles + (long) nombreTuiles(largeur, hauteur) * OCTETS_TUILE;
+        if (this.donnees.limit() < octetsAttendus) {
+            throw new IllegalArgumentException("Grille en tuiles tronquée: " + this.donnees.limit()
+                    + " octets pour " + octetsAttendus + " attendus");
+        }
+
+        this.maxTuilesResidentes = maxTuilesResidentes;
+        this.tuiles = new AtomicReferenceArray<>(nombreTuiles(largeur, hauteur));
+        this.referencees = new byte[tuiles.length()];
+        this.residentes = new int[Math.min(maxTuilesResidentes, tuiles.length())];
+    }
+
+    /**
+     * Ouvre un fichier de tuiles (voir ecrire / convertirTexte) sans en lire le contenu
+     */
+    public static MapBoolPaginee ouvrir(Path fichier, int maxTuilesResidentes) {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Fichier de tuiles trop grand (> 2 Go): " + fichier);
+            }
+            // La projection reste valide après la fermeture du canal
+            ByteBuffer donnees = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (donnees.limit() < TAILLE_ENTETE || donnees.getInt(0) != MAGIC) {
+                throw new IllegalArgumentException("Fichier de tuiles invalide: " + fichier);
+            }
+            if (donnees.getInt(4) != VERSION) {
+                throw new IllegalArgumentException("Version de fichier de tuiles non supportée: " + donnees.getInt(4));
+            }
+            return new MapBoolPaginee(donnees, TAILLE_ENTETE, donnees.getInt(8), donnees.getInt(12), maxTuilesResidentes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'ouvrir le fichier de tuiles: " + fichier, e);
+        }
+    }
+
+    public static MapBoolPaginee ouvrir(Path fichier) {
+        return ouvrir(fichier, TUILES_RESIDENTES_DEFAUT);
+    }
+
+    static int nombreTuiles(int largeur, int hauteur) {
+        return ((largeur + TAILLE_TUILE - 1) / TAILLE_TUILE) * ((hauteur + TAILLE_TUILE - 1) / TAILLE_TUILE);
+    }
+
+    @Override
+    public boolean isWall(int x, int y) {
+        if (x < 0 || x >= largeur || y < 0 || y >= hauteur) return true;
+        long[] tuile = getTuile((y / TAILLE_TUILE) * tuilesParLigne + (x / TAILLE_TUILE));
+        return ((tuile[y % TAILLE_TUILE] >>> x) & 1L) != 0;
+    }
+
+    /**
+     * Tuile décodée depuis l'ensemble résident (lecture sans verrou), chargée depuis le fichier projeté si absente
+     */
+    private long[] getTuile(int index) {
+        long[] tuile = tuiles.getAcquire(index);
+        if (tuile == null) return chargerTuile(index);
+        if (referencees[index] == 0) referencees[index] = 1;
+        return tuile;
+    }
+
+    /**
+     * Décode la tuile dans un tableau neuf et la publie. Ensemble plein : l'aiguille évince la première
+     * tuile non relue depuis son dernier passage (les lecteurs qui la tiennent encore la lisent intacte).
+     */
+    private synchronized long[] chargerTuile(int index) {
+        long[] tuile = tuiles.get(index);
+        if (tuile != null) return tuile; // décodée par un autre thread entre-temps
+
+        int place;
+        if (nbResidentes < residentes.length) {
+            place = nbResidentes++;
+        } else {
+            while (referencees[residentes[aiguille]] != 0) {
+                referencees[residentes[aiguille]] = 0;
+                aiguille = (aiguille + 1) % residentes.length;
+            }
+            place = aiguille;
+            tuiles.set(residentes[place], null);
+            aiguille = (aiguille + 1) % residentes.length;
+        }
+
+        tuile = new long[TAILLE_TUILE];
+        int position = debutTuiles + index * OCTETS_TUILE;
+        for (int r = 0; r < TAILLE_TUILE; r++) {
+            tuile[r] = donnees.getLong(position + r * Long.BYTES);
+        }
+        nbChargements++;
+        residentes[place] = index;
+        referencees[index] = 0;
+        tuiles.setRelease(index, tuile);
+        return tuile;
+    }
+
+    /**
+     * Map en lecture seule
+     * @throws UnsupportedOperationException toujours
+     */
+    @Override
+    public void setWall(int x, int y, boolean mur) {
+        throw new UnsupportedOperationException("Map paginée en lecture seule : setWall impossible");
+    }
+
+    /**
+     * Map en lecture seule (la texture des cases n'est pas stockée : tous les murs ont la texture 1)
+     * @throws UnsupportedOperationException toujours
+     */
+    @Override
+    public void setTexture(int x, int y, int textureId) {
+        throw new UnsupportedOperationException("Map paginée en lecture seule : setTexture impossible");
+    }
+
+    /**
+     * Pas de champ de distance : il demanderait un octet par case de toute la map, décodée entièrement.
+     * Raycasting.setSautEspaceVide refuse donc une map paginée.
+     * @return null
+     */
+    @Override
+    public byte[] getDistancesMurs() {
+        return null;
+    }
+
+    /** Limite de l'ensemble résident */
+    public int getMaxTuilesResidentes() {
+        return maxTuilesResidentes;
+    }
+
+    public synchronized int getNbTuilesResidentes() {
+        return nbResidentes;
+    }
+
+    /** Nombre de tuiles décodées depuis l'ouverture (défauts de l'ensemble résident) */
+    public synchronized long getNbChargements() {
+        return nbChargements;
+    }
+
+    // --- ECRITURE ---
+
+    /**
+     * Écrit une map au format tuiles (fichier complet avec en-tête)
+     */
+    public static void ecrire(MapBool source, Path fichier) {
+        int largeur = source.getWIDTH();
+        int hauteur = source.getHeight();
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ecrireEntete(canal, largeur, hauteur);
+            canal.position(TAILLE_ENTETE);
+            ecrireTuiles(source, canal);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'écrire le fichier de tuiles: " + fichier, e);
+        }
+    }
+
+    /**
+     * Écrit les tuiles de la map à la position courante du canal (sans en-tête)
+     */
+    public static void ecrireTuiles(MapBool source, FileChannel canal) throws IOException {
+        int largeur = source.getWIDTH();
+        int hauteur = source.getHeight();
+        int tuilesX = (largeur + TAILLE_TUILE - 1) / TAILLE_TUILE;
+        int tuilesY = (hauteur + TAILLE_TUILE - 1) / TAILLE_TUILE;
+        long[] bits = source.getBits();
+        int motsParLigne = source.getMotsParLigne();
+
+        ByteBuffer tampon = ByteBuffer.allocate(OCTETS_TUILE * tuilesX).order(ByteOrder.LITTLE_ENDIAN);
+        for (int ty = 0; ty < tuilesY; ty++) {
+            tampon.clear();
+            for (int tx = 0; tx < tuilesX; tx++) {
+                for (int r = 0; r < TAILLE_TUILE; r++) {
+                    int y = ty * TAILLE_TUILE + r;
+                    long ligne = 0;
+                    if (y < hauteur) {
+                        ligne = bits != null ? bits[y * motsParLigne + tx] : ligneTuile(source, tx, y);
+                    }
+                    tampon.putLong(ligne);
+                }
+            }
+            tampon.flip();
+            while (tampon.hasRemaining()) {
+                canal.write(tampon);
+            }
+        }
+    }
+
+    private static long ligneTuile(MapBool source, int tx, int y) {
+        long ligne = 0;
+        int x0 = tx * TAILLE_TUILE;
+        for (int i = 0; i < TAILLE_TUILE && x0 + i < source.getWIDTH(); i++) {
+            if (source.isWall(x0 + i, y)) {
+                ligne |= 1L << i;
+            }
+        }
+        return ligne;
+    }
+
+    private static void ecrireEntete(FileChannel canal, int largeur, int hauteur) throws IOException {
+        ByteBuffer entete = ByteBuffer.allocate(TAILLE_ENTETE).order(ByteOrder.LITTLE_ENDIAN);
+        entete.putInt(MAGIC).putInt(VERSION).putInt(largeur).putInt(hauteur).flip();
+        canal.write(entete, 0);
+    }
+
+    /**
+     * Convertit une map texte (format de MapBool) en fichier de tuiles en ne gardant en mémoire
+     * qu'une bande de 64 lignes : adapté aux maps trop grandes pour être chargées d'un bloc.
+     */
+    public static void convertirTexte(String fichierTexte, Path fichierTuiles) {
+        try (BufferedReader br = new BufferedReader(new FileReader(fichierTexte));
+             FileChannel canal = FileChannel.open(fichierTuiles, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            canal.position(TAILLE_ENTETE);
+
+            int largeur = -1;
+            int hauteur = 0;
+            long[] bande = null;
+            ByteBuffer tampon = null;
+            String line;
+            while ((line = br.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                line = line.replaceAll("\\s+", "");
+
+                if (largeur < 0) {
+                    largeur = line.length();
+                    bande = new long[TAILLE_TUILE * ((largeur + TAILLE_TUILE - 1) / TAILLE_TUILE)];
+                    tampon = ByteBuffer.allocate(bande.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                }
+                if (line.length() != largeur) {
+                    throw new IllegalArgumentException("Map non rectangulaire dans " + fichierTexte + " : ligne "
+                            + (hauteur + 1) + " fait " + line.length() + " mais attendu " + largeur);
+                }
+
+                int r = hauteur % TAILLE_TUILE;
+                for (int x = 0; x < largeur; x++) {
+                    char c = line.charAt(x);
+                    if (MapBool.idTexture(c) > 0) {
+                        bande[(x / TAILLE_TUILE) * TAILLE_TUILE + r] |= 1L << x;
+                    } else if (c != '0') {
+                        throw new IllegalArgumentException("Caractère invalide '" + c + "' à (x=" + x + ", y=" + hauteur
+                                + "). Attendu 0 (vide), 1-9 ou A-Z (mur).");
+                    }
+                }
+                hauteur++;
+                if (hauteur % TAILLE_TUILE == 0) {
+                    ecrireBande(canal, bande, tampon);
+                }
+            }
+
+            if (largeur <= 0) {
+                throw new IllegalArgumentException("Le fichier est vide: " + fichierTexte);
+            }
+            if (hauteur % TAILLE_TUILE != 0) {
+                ecrireBande(canal, bande, tampon);
+            }
+            ecrireEntete(canal, largeur, hauteur);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de convertir la map: " + fichierTexte, e);
+        }
+    }
+
+    private static void ecrireBande(FileChannel canal, long[] bande, ByteBuffer tampon) throws IOException {
+        tampon.clear();
+        for (int i = 0; i < bande.length; i++) {
+            tampon.putLong(bande[i]);
+            bande[i] = 0;
+        }
+        tampon.flip();
+        while (tampon.hasRemaining()) {
+            canal.write(tampon);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package moteur_graphique.raycasting;
+
+/**
+ * Chaînes de mipmaps des textures rangées colonne par colonne (x * hauteur + y) : chaque niveau
+ * divise les deux côtés par 2 (au moins 1 texel) en moyennant des blocs de 2x2 texels.
+ * Une surface lointaine lit le niveau dont la densité de texels correspond à sa taille à l'écran :
+ * moins de mémoire parcourue et moins de scintillement.
+ */
+final class Mipmaps {
+
+    private Mipmaps() {
+    }
+
+    /**
+     * Niveaux 0 (la texture elle-même) jusqu'à 1x1
+     */
+    static int[][] construireChaine(int[] texels, int largeur, int hauteur) {
+        int nbNiveaux = nbNiveaux(largeur, hauteur);
+        int[][] chaine = new int[nbNiveaux][];
+        chaine[0] = texels;
+        for (int niveau = 1; niveau < nbNiveaux; niveau++) {
+            chaine[niveau] = reduire(chaine[niveau - 1], taille(largeur, niveau - 1), taille(hauteur, niveau - 1));
+        }
+        return chaine;
+    }
+
+    static int nbNiveaux(int largeur, int hauteur) {
+        return 32 - Integer.numberOfLeadingZeros(Math.max(largeur, hauteur));
+    }
+
+    /** Côté d'une texture au niveau donné */
+    static int taille(int tailleNiveau0, int niveau) {
+        return Math.max(1, tailleNiveau0 >> niveau);
+    }
+
+    /**
+     * Niveau à lire pour une texture de tailleTexture texels affichée sur tailleEcran pixels :
+     * le plus grand niveau qui garde au moins un texel par pixel
+     */
+    static int choisirNiveau(int tailleTexture, int tailleEcran, int nbNiveaux) {
+        int texelsParPixel = tailleTexture / Math.max(1, tailleEcran);
+        if (texelsParPixel < 2) return 0;
+        return Math.min(nbNiveaux - 1, 31 - Integer.numberOfLeadingZeros(texelsParPixel));
+    }
+
+    /**
+     * Moyenne de chaque bloc de 2x2 texels, pondérée par l'alpha (un texel transparent ne
+     * fonce pas ses voisins opaques)
+     */
+    private static int[] reduire(int[] texels, int largeur, int hauteur) {
+        int nouvelleLargeur = Math.max(1, largeur / 2);
+        int nouvelleHauteur = Math.max(1, hauteur / 2);
+        int[] reduits = new int[nouvelleLargeur * nouvelleHauteur];
+        for (int x = 0; x < nouvelleLargeur; x++) {
+            int x0 = Math.min(2 * x, largeur - 1) * hauteur;
+            int x1 = Math.min(2 * x + 1, largeur - 1) * hauteur;
+            for (int y = 0; y < nouvelleHauteur; y++) {
+                int y0 = Math.min(2 * y, hauteur - 1);
+                int y1 = Math.min(2 * y + 1, hauteur - 1);
+                reduits[x * nouvelleHauteur + y] = moyenne(texels[x0 + y0], texels[x0 + y1], texels[x1 + y0], texels[x1 + y1]);
+            }
+        }
+        return reduits;
+    }
+
+    private static int moyenne(int c0, int c1, int c2, int c3) {
+        int a0 = c0 >>> 24;
+        int a1 = c1 >>> 24;
+        int a2 = c2 >>> 24;
+        int a3 = c3 >>> 24;
+        int sommeAlpha = a0 + a1 + a2 + a3;
+        if (sommeAlpha == 0) return 0;
+        int r = (((c0 >> 16) & 0xFF) * a0 + ((c1 >> 16) & 0xFF) * a1 + ((c2 >> 16) & 0xFF) * a2 + ((c3 >> 16) & 0xFF) * a3) / sommeAlpha;
+        int g = (((c0 >> 8) & 0xFF) * a0 + ((c1 >> 8) & 0xFF) * a1 + ((c2 >> 8) & 0xFF) * a2 + ((c3 >> 8) & 0xFF) * a3) / sommeAlpha;
+        int b = ((c0 & 0xFF) * a0 + (c1 & 0xFF) * a1 + (c2 & 0xFF) * a2 + (c3 & 0xFF) * a3) / sommeAlpha;
+        int a = (sommeAlpha + 2) / 4;
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+}
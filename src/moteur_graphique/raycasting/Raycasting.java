@@ -1,40 +1,55 @@
 package moteur_graphique.raycasting;
 
+import moteur_graphique.CacheAssets;
+import moteur_graphique.FrameRenderer;
 import moteur_graphique.GameRenderer; // Importer l'interface
 import entite.Joueur;
 import entite.Sprite;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferInt;
 import java.io.File;
-import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class Raycasting implements GameRenderer {
+public class Raycasting implements GameRenderer, FrameRenderer {
 
     private static final Logger LOGGER = Logger.getLogger(Raycasting.class.getName());
+    private static final String WALL_TEXTURE_PATH = "assets/textures/wall.jpg";
 
-    private MapBool map;
+    private final MapBool map;
     private Joueur joueur;
     private static final int FOV = 60;
+    private int fovDegres = FOV;
     private static final int NUM_RAYS = 1000;
+    private int numRays = NUM_RAYS; // réduit par la résolution dynamique
 
     private final List<Sprite> sprites = new CopyOnWriteArrayList<>();
     private double[] zBuffer;
 
-    private int[] wallTexturePixels;
+    private int[] wallTexturePixels; // ligne par ligne (texY * texWidth + texX)
+    // Copies colonne par colonne (texX * texHeight + texY) : une colonne de mur lit de la mémoire contiguë.
+    // Chaînes de mipmaps : [0] = texture pleine, puis côtés divisés par 2 à chaque niveau
+    private int[][] murMips;
+    private int[][] murSombreMips; // pré-assombrie pour les faces "side"
     private int texWidth = 64;
     private int texHeight = 64;
 
-    // Buffer de rendu
+    // Buffer de rendu (utilisé par render(Graphics) ; renderFrame écrit dans le buffer de l'appelant)
     private BufferedImage screenBuffer;
-    private int[] screenPixels;
+    private int[] screenBufferPixels;
+    private int[] screenPixels; // framebuffer cible de la frame en cours
     private int lastScreenWidth = 0;
     private int lastScreenHeight = 0;
 
@@ -45,6 +60,87 @@ public class Raycasting implements GameRenderer {
     private static final int WALL_COLOR_DARK = new Color(150, 75, 0).getRGB();
 
     private static final String FONT_ARIAL = "Arial";
+    private static final Font FONT_PSEUDO = new Font(FONT_ARIAL, Font.BOLD, 16);
+    private static final Color COULEUR_FOND_PSEUDO = new Color(0, 0, 0, 150);
+
+    // Rendu multi-coeurs : les rayons sont découpés en plages traitées par le pool fork/join commun
+    // (partagé par tous les moteurs : aucun thread à arrêter quand un moteur est abandonné)
+    private static final int MIN_RAYONS_PAR_TACHE = 16;
+    private boolean renduParallele = false;
+    private TacheTranche[] tranches; // réutilisées d'une frame à l'autre (allouées au premier rendu parallèle)
+
+    // Projection sur le plan caméra (pas de distorsion, une seule rotation par frame)
+    private boolean projectionPlanCamera = false;
+    private double[] offsetsCamera;
+    private double[] anglesCamera; // angle de chaque rayon par rapport à la direction du joueur
+    private int fovTablesCamera = -1;
+
+    // Colonnes texturées en virgule fixe (sinon calcul flottant par pixel)
+    private boolean texturePasFixe = true;
+
+    // Mipmaps : les murs et sprites lointains lisent le niveau adapté à leur hauteur à l'écran
+    private boolean mipmaps = false;
+
+    // Résolution dynamique : rendu interne réduit pour tenir un temps de frame cible
+    private static final int PALIERS_ECHELLE = 20;   // échelle = palier / 20 (pas de 0.05)
+    private static final int PALIER_MIN = 5;         // 0.25
+    private static final int FRAMES_ENTRE_AJUSTEMENTS = 10;
+    private static final int MIN_RAYONS_DYNAMIQUE = 64;
+    private boolean resolutionDynamique = false;
+    private double tempsFrameCibleMs = 1000.0 / 60;
+    private volatile int palierEchelle = PALIERS_ECHELLE;
+    private volatile double tempsFrameMoyenMs = 0;
+    private int framesDepuisAjustement = 0;
+    private int[] bufferInterne;
+    private int[] colonnesSource;
+    private int largeurSourceTable = -1;
+    private int largeurDestTable = -1;
+
+    // Saut des zones vides dans le DDA grâce au champ de distance de la map
+    private boolean sautEspaceVide = false;
+
+    // Panorama 360° des impacts vus depuis la position courante : quand le joueur ne fait que tourner,
+    // chaque rayon réutilise l'impact calculé pour la direction absolue la plus proche au lieu de relancer le DDA.
+    // Les entrées manquantes pour la frame sont remplies avant le rendu des colonnes (qui ne fait que les lire),
+    // et toutes invalidées (génération) dès que la position ou la map change.
+    private static final int RAYONS_PANORAMA_PAR_RAYON = 2; // résolution angulaire : 2 entrées par rayon d'écran
+    private boolean panorama = false;
+    private final int[] indexPanorama = new int[NUM_RAYS]; // entrée lue par chaque rayon de la frame
+    private double[] panoDistance;   // distance de l'impact le long de la direction unitaire
+    private boolean[] panoSide;
+    private int[] panoTexId;
+    private int[] panoGeneration;
+    private int generationPanorama = 0;
+    private int fovPanorama = -1;
+    private double panoX = Double.NaN;
+    private double panoY = Double.NaN;
+    private MapBool panoMap;
+    private int panoVersionMap;
+    private final LongAdder rayonsPanoramaServis = new LongAdder();
+    private final LongAdder rayonsPanoramaLances = new LongAdder();
+
+    // Éclairage par tables d'ombrage (null = pas d'ombrage par distance). Les petites textures ont une copie
+    // pré-ombrée par niveau (une lecture par pixel) tant que l'ensemble des niveaux tient dans le plafond ;
+    // les autres (null ici) et les sprites passent chaque texel lu par les tables de l'éclairage.
+    private static final int OCTETS_MAX_PRE_OMBRES = 4 << 20; // par texture (tous niveaux, mipmaps compris)
+    private Eclairage eclairage;
+    private int[][][] murNiveaux;       // [niveau de mipmap][niveau de lumière]
+    private int[][][] murSombreNiveaux;
+
+    // Textures de murs 8 bits par identifiant de case (null = texture unique 32 bits) et palettes dérivées
+    private BanqueTextures texturesMurs;
+    private int[] paletteMur;
+    private int[] paletteMurSombre;
+    private int[][] paletteMurNiveaux;
+    private int[][] paletteMurSombreNiveaux;
+
+    // Caméra de la frame en cours (figée au début du rendu, lue par les tâches de rendu)
+    private double camX;
+    private double camY;
+    private double camAngle;
+    private double camDirX;
+    private double camDirY;
+    private double camFov;
 
     // Struct interne
     private static class RayResult {
@@ -52,42 +148,146 @@ public class Raycasting implements GameRenderer {
         boolean side;
         int stepX; int stepY;
         double rayDirX; double rayDirY;
+        int texId; // texture de la case touchée
     }
 
+    // Suivi des changements de la scène : la dernière frame rendue reste valable tant que rien ne change
+    private final AtomicInteger versionConfig = new AtomicInteger();        // réglages et textures du rendu
+    private final AtomicInteger versionListeSprites = new AtomicInteger(); // ajouts et retraits (thread réseau)
+    // État de la dernière frame rendue : écrit par le thread de rendu sous le verrou, relu par la boucle de jeu
+    // en lecture optimiste (sans allocation) ; une lecture croisant une écriture est rejetée et la frame rendue
+    private final StampedLock verrouEtatFrame = new StampedLock();
+    private int derniereLargeur = -1;
+    private int derniereHauteur = -1;
+    private double dernierCamX;
+    private double dernierCamY;
+    private double dernierCamAngle;
+    private int derniereVersionMap;
+    private int derniereVersionConfig;
+    private int derniereVersionListeSprites;
+    private int dernierPalier;
+    private long derniereSommeVersionsSprites;
+    // Sprites de la dernière frame (terminés par null), relus par isFrameAJour sans itérateur ; deux tableaux
+    // alternés : celui qui est réécrit a toujours été remplacé sous le verrou avant, ce qu'un lecteur détecte
+    private Sprite[] spritesEtat = new Sprite[8];
+    private Sprite[] spritesLibres = new Sprite[8];
+
+    // Structures de travail pré-allouées (aucune allocation par frame une fois le rendu chauffé)
+    private final RayResult[] rayResults = new RayResult[NUM_RAYS];
+    private Sprite[] spritesTries = new Sprite[8];
+    private double[] distancesSprites = new double[8];
+    private int nbSpritesTries = 0;
+    private Sprite[] pseudoSprites = new Sprite[8];
+    private int[] pseudoX = new int[8];
+    private int[] pseudoY = new int[8];
+    private int nbPseudos = 0;
+
+    // Images de sprites pré-découpées en colonnes (clé faible : l'image disparaît avec son sprite)
+    private final Map<BufferedImage, TextureSprite> texturesSprites = new WeakHashMap<>();
+
     public Raycasting(MapBool m, Joueur j) {
         this.map = m;
         this.joueur = j;
+        for (int i = 0; i < NUM_RAYS; i++) {
+            rayResults[i] = new RayResult();
+        }
         loadWallTexture();
     }
 
     private void loadWallTexture() {
+        File textureFile = new File(WALL_TEXTURE_PATH);
+        if (!textureFile.exists()) {
+            LOGGER.warning("Fichier texture non trouvé: " + WALL_TEXTURE_PATH + " - Utilisation des couleurs par défaut");
+            wallTexturePixels = null;
+            return;
+        }
         try {
-            File textureFile = new File("assets/textures/wall.jpg");
-            if (textureFile.exists()) {
-                BufferedImage loaded = ImageIO.read(textureFile);
-                // Convertir en TYPE_INT_ARGB pour accès rapide aux pixels
-                texWidth = loaded.getWidth();
-                texHeight = loaded.getHeight();
-                BufferedImage wallTexture = new BufferedImage(texWidth, texHeight, BufferedImage.TYPE_INT_ARGB);
-                Graphics2D g2d = wallTexture.createGraphics();
-                g2d.drawImage(loaded, 0, 0, null);
-                g2d.dispose();
-
-                // Extraire les pixels dans un tableau pour accès ultra-rapide
-                wallTexturePixels = new int[texWidth * texHeight];
-                wallTexture.getRGB(0, 0, texWidth, texHeight, wallTexturePixels, 0, texWidth);
-
-                LOGGER.log(Level.INFO, "Texture du mur chargée: {0}x{1}", new Object[]{texWidth, texHeight});
-            } else {
-                LOGGER.warning("Fichier texture non trouvé: assets/wall.png - Utilisation des couleurs par défaut");
-                wallTexturePixels = null;
-            }
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, e, () -> "Erreur lors du chargement de la texture: " + e.getMessage());
+            // décodée une fois pour tous les moteurs (cache partagé, épinglée)
+            appliquerTextureMur(CacheAssets.getPartage().precharger(WALL_TEXTURE_PATH).join());
+            LOGGER.log(Level.INFO, "Texture du mur chargée: {0}x{1}", new Object[]{texWidth, texHeight});
+        } catch (CompletionException e) {
+            LOGGER.log(Level.SEVERE, e.getCause(), () -> "Erreur lors du chargement de la texture: " + e.getCause().getMessage());
             wallTexturePixels = null;
         }
     }
 
+    /**
+     * Remplace la texture des murs (convertie en ARGB). Les copies colonne par colonne
+     * (normale et assombrie) utilisées par le rendu des murs et leurs mipmaps sont pré-calculées ici.
+     */
+    public void setWallTexture(BufferedImage loaded) {
+        appliquerTextureMur(loaded);
+    }
+
+    // privée : appelée aussi par le constructeur, une sous-classe ne doit pas la voir avant d'être initialisée
+    private void appliquerTextureMur(BufferedImage loaded) {
+        // Convertir en TYPE_INT_ARGB pour accès rapide aux pixels
+        int largeur = loaded.getWidth();
+        int hauteur = loaded.getHeight();
+        BufferedImage wallTexture = new BufferedImage(largeur, hauteur, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = wallTexture.createGraphics();
+        g2d.drawImage(loaded, 0, 0, null);
+        g2d.dispose();
+
+        // Extraire les pixels dans un tableau pour accès ultra-rapide
+        int[] pixels = new int[largeur * hauteur];
+        wallTexture.getRGB(0, 0, largeur, hauteur, pixels, 0, largeur);
+
+        int[] colonnes = new int[pixels.length];
+        int[] colonnesSombres = new int[pixels.length];
+        for (int x = 0; x < largeur; x++) {
+            for (int y = 0; y < hauteur; y++) {
+                int color = pixels[y * largeur + x];
+                colonnes[x * hauteur + y] = color;
+                colonnesSombres[x * hauteur + y] = assombrirCouleur(color);
+            }
+        }
+
+        texWidth = largeur;
+        texHeight = hauteur;
+        murMips = Mipmaps.construireChaine(colonnes, largeur, hauteur);
+        murSombreMips = Mipmaps.construireChaine(colonnesSombres, largeur, hauteur);
+        wallTexturePixels = pixels;
+        preparerOmbrage();
+    }
+
+    /**
+     * Palettes 8 bits ombrées par niveau de lumière (32 x 1 Ko) et copies pré-ombrées des textures 32 bits
+     * qui tiennent dans OCTETS_MAX_PRE_OMBRES. Construites ici et non pendant le rendu : les tâches
+     * parallèles ne font que les lire, et aucune frame n'alloue de copie.
+     */
+    private void preparerOmbrage() {
+        versionConfig.incrementAndGet();
+        paletteMurNiveaux = null;
+        paletteMurSombreNiveaux = null;
+        murNiveaux = null;
+        murSombreNiveaux = null;
+        if (eclairage == null) return;
+
+        paletteMurNiveaux = paletteMur != null ? eclairage.ombrerTexture(paletteMur) : null;
+        paletteMurSombreNiveaux = paletteMurSombre != null ? eclairage.ombrerTexture(paletteMurSombre) : null;
+        if (murMips != null && tientDansPlafondOmbres(murMips)) {
+            murNiveaux = ombrerChaine(murMips);
+            murSombreNiveaux = ombrerChaine(murSombreMips);
+        }
+    }
+
+    private static boolean tientDansPlafondOmbres(int[]... textures) {
+        long texels = 0;
+        for (int[] texture : textures) {
+            texels += texture.length;
+        }
+        return texels * Eclairage.NIVEAUX * Integer.BYTES <= OCTETS_MAX_PRE_OMBRES;
+    }
+
+    private int[][][] ombrerChaine(int[][] mips) {
+        int[][][] niveaux = new int[mips.length][][];
+        for (int mip = 0; mip < mips.length; mip++) {
+            niveaux[mip] = eclairage.ombrerTexture(mips[mip]);
+        }
+        return niveaux;
+    }
+
     /**
      * Dessiner le fond (ciel en haut, sol en bas)
      */
@@ -105,26 +305,237 @@ public class Raycasting implements GameRenderer {
     /**
      * Lancer tous les rayons et dessiner les murs
      */
-    private void lancerRayons(int screenWidth, int screenHeight, double fov) {
-        double joueurX = joueur.getX();
-        double joueurY = joueur.getY();
-        double joueurAngle = joueur.getAngle();
+    private void lancerRayons(int screenWidth, int screenHeight) {
+        if (projectionPlanCamera) {
+            preparerTablesCamera();
+        }
 
-        for (int i = 0; i < NUM_RAYS; i++) {
-            double rayAngle = joueurAngle - fov / 2 + (fov * i / NUM_RAYS);
-            RayResult result = executerDDA(rayAngle, joueurX, joueurY);
-            dessinerColonneMur(i, screenWidth, screenHeight, result, joueurX, joueurY);
+        if (renduParallele) {
+            if (panorama) {
+                // toutes les tranches sont terminées au retour : entrées visibles par la passe suivante
+                preparerPanorama();
+                executerEnTranches(Travail.PANORAMA, 0, numRays, MIN_RAYONS_PAR_TACHE, screenWidth, screenHeight);
+            }
+            executerEnTranches(Travail.RAYONS, 0, numRays, MIN_RAYONS_PAR_TACHE, screenWidth, screenHeight);
+        } else {
+            if (panorama) {
+                preparerPanorama();
+                remplirPanorama(0, numRays);
+            }
+            lancerPlageRayons(0, numRays, screenWidth, screenHeight);
+        }
+    }
+
+    /**
+     * Lancer les rayons [debut, fin[ : chaque rayon n'écrit que dans ses propres colonnes
+     * de screenPixels et de zBuffer, deux plages disjointes peuvent donc être traitées en parallèle.
+     */
+    private void lancerPlageRayons(int debut, int fin, int screenWidth, int screenHeight) {
+        for (int i = debut; i < fin; i++) {
+            double rayDirX;
+            double rayDirY;
+            if (projectionPlanCamera) {
+                // direction = dir + plan * offset, le plan étant perpendiculaire à dir
+                double offset = offsetsCamera[i];
+                rayDirX = camDirX - camDirY * offset;
+                rayDirY = camDirY + camDirX * offset;
+            } else {
+                double rayAngle = camAngle - camFov / 2 + (camFov * i / numRays);
+                rayDirX = Math.cos(rayAngle);
+                rayDirY = Math.sin(rayAngle);
+            }
+            RayResult result = rayResults[i];
+            if (panorama) {
+                lireRayonPanorama(indexPanorama[i], rayDirX, rayDirY, result);
+            } else {
+                executerDDA(rayDirX, rayDirY, camX, camY, result);
+            }
+            dessinerColonneMur(i, screenWidth, screenHeight, result, camX, camY);
+        }
+    }
+
+    /**
+     * Entrées du panorama des rayons [debut, fin[ : chaque entrée invalide est calculée (DDA dans sa direction
+     * exacte) par le premier rayon qui la lit, seul à y écrire ; deux plages disjointes peuvent donc être
+     * traitées en parallèle. Compte les rayons servis par une entrée déjà valide et ceux qui ont dû la calculer.
+     */
+    private void remplirPanorama(int debut, int fin) {
+        int taille = panoDistance.length;
+        int servis = 0;
+        int lances = 0;
+        for (int i = debut; i < fin; i++) {
+            int index = indexPanorama[i];
+            if (i > 0 && indexPanorama[i - 1] == index) continue; // entrée du rayon précédent (indices consécutifs)
+            int rayons = 1;
+            while (i + rayons < numRays && indexPanorama[i + rayons] == index) rayons++;
+
+            if (panoGeneration[index] == generationPanorama) {
+                servis += rayons;
+                continue;
+            }
+            double angle = 2 * Math.PI * index / taille;
+            RayResult result = executerDDA(Math.cos(angle), Math.sin(angle), camX, camY, rayResults[i]);
+            panoDistance[index] = result.perpWallDist; // direction unitaire : distance le long du rayon
+            panoSide[index] = result.side;
+            panoTexId[index] = result.texId;
+            panoGeneration[index] = generationPanorama;
+            lances += rayons;
         }
+        rayonsPanoramaServis.add(servis);
+        rayonsPanoramaLances.add(lances);
     }
 
-    private RayResult executerDDA(double rayAngle, double joueurX, double joueurY) {
-        boolean[][] mapData = map.getGrid();
+    /**
+     * Rayon de direction (rayDirX, rayDirY) servi par l'entrée du panorama (déjà remplie pour cette frame)
+     */
+    private void lireRayonPanorama(int index, double rayDirX, double rayDirY, RayResult result) {
+        // Ramené au rayon de la frame : même impact, distance perpendiculaire selon la norme de sa direction
+        double norme = Math.sqrt(rayDirX * rayDirX + rayDirY * rayDirY);
+        result.perpWallDist = panoDistance[index] / norme;
+        result.side = panoSide[index];
+        result.texId = panoTexId[index];
+        result.rayDirX = rayDirX;
+        result.rayDirY = rayDirY;
+        result.stepX = rayDirX < 0 ? -1 : 1;
+        result.stepY = rayDirY < 0 ? -1 : 1;
+    }
+
+    /**
+     * Début de frame : (ré)alloue le panorama si le FOV a changé, l'invalide si la caméra s'est déplacée
+     * ou si la map a été modifiée depuis son remplissage, puis range l'entrée de chaque rayon dans
+     * indexPanorama (angle absolu du rayon, tiré des tables : pas de trigonométrie par rayon)
+     */
+    private void preparerPanorama() {
+        if (panoDistance == null || fovPanorama != fovDegres) {
+            int taille = (int) Math.ceil(360.0 / fovDegres * NUM_RAYS * RAYONS_PANORAMA_PAR_RAYON);
+            panoDistance = new double[taille];
+            panoSide = new boolean[taille];
+            panoTexId = new int[taille];
+            panoGeneration = new int[taille];
+            generationPanorama = 0;
+            fovPanorama = fovDegres;
+            panoMap = null;
+        }
+        if (camX != panoX || camY != panoY || map != panoMap || map.getVersion() != panoVersionMap) {
+            if (++generationPanorama == Integer.MAX_VALUE) {
+                java.util.Arrays.fill(panoGeneration, 0);
+                generationPanorama = 1;
+            }
+            panoX = camX;
+            panoY = camY;
+            panoMap = map;
+            panoVersionMap = map.getVersion();
+        }
+
+        int taille = panoDistance.length;
+        double entreesParRadian = taille / (2 * Math.PI);
+        for (int i = 0; i < numRays; i++) {
+            double angle = projectionPlanCamera
+                    ? camAngle + anglesCamera[i]
+                    : camAngle - camFov / 2 + (camFov * i / numRays);
+            int index = (int) Math.round(angle * entreesParRadian) % taille;
+            indexPanorama[i] = index < 0 ? index + taille : index;
+        }
+    }
+
+    /**
+     * Tables de projection sur le plan caméra : décalage de chaque rayon le long du plan.
+     * Recalculées uniquement quand le FOV ou le nombre de rayons (résolution) change.
+     */
+    private void preparerTablesCamera() {
+        if (offsetsCamera != null && offsetsCamera.length == numRays && fovTablesCamera == fovDegres) {
+            return;
+        }
+        double longueurPlan = Math.tan(Math.toRadians(fovDegres) / 2);
+        double[] offsets = new double[numRays];
+        double[] angles = new double[numRays];
+        for (int i = 0; i < numRays; i++) {
+            offsets[i] = (2.0 * i / numRays - 1) * longueurPlan;
+            angles[i] = Math.atan(offsets[i]);
+        }
+        offsetsCamera = offsets;
+        anglesCamera = angles;
+        fovTablesCamera = fovDegres;
+    }
+
+    /** Angle de chaque rayon par rapport à la direction du joueur, tables du dernier rendu en plan caméra (tests) */
+    double[] getAnglesCamera() {
+        return anglesCamera;
+    }
+
+    private enum Travail { RAYONS, PANORAMA }
+
+    /**
+     * Tâche fork/join d'une tranche de rayons (murs ou entrées du panorama).
+     * Réinitialisée à chaque frame au lieu d'être recréée.
+     */
+    private final class TacheTranche extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private Travail travail;
+        private int debut;
+        private int fin;
+        private int screenWidth;
+        private int screenHeight;
+
+        @Override
+        protected void compute() {
+            switch (travail) {
+                case RAYONS -> lancerPlageRayons(debut, fin, screenWidth, screenHeight);
+                case PANORAMA -> remplirPanorama(debut, fin);
+            }
+        }
+    }
+
+    /**
+     * Découpe [debut, fin[ en tranches égales d'au moins minParTranche : le thread appelant exécute la
+     * première, le pool commun vole les autres et l'appelant reprend celles restées en file.
+     * Rend la main une fois toutes les tranches terminées.
+     */
+    private void executerEnTranches(Travail travail, int debut, int fin, int minParTranche,
+                                    int screenWidth, int screenHeight) {
+        if (tranches == null) {
+            // le thread appelant travaille aussi, d'où un parallélisme effectif d'un thread de plus que le pool
+            tranches = new TacheTranche[(ForkJoinPool.getCommonPoolParallelism() + 1) * 4];
+            for (int i = 0; i < tranches.length; i++) {
+                tranches[i] = new TacheTranche();
+            }
+        }
+        int taille = fin - debut;
+        int nbTranches = Math.max(1, Math.min(tranches.length, taille / minParTranche));
+        for (int i = 0; i < nbTranches; i++) {
+            TacheTranche tranche = tranches[i];
+            tranche.reinitialize();
+            tranche.travail = travail;
+            tranche.debut = debut + (int) ((long) taille * i / nbTranches);
+            tranche.fin = debut + (int) ((long) taille * (i + 1) / nbTranches);
+            tranche.screenWidth = screenWidth;
+            tranche.screenHeight = screenHeight;
+        }
+        // dernière forkée en premier : l'appelant dépile les suivantes dans l'ordre, le pool vole les dernières
+        for (int i = nbTranches - 1; i > 0; i--) {
+            tranches[i].fork();
+        }
+        tranches[0].invoke();
+        for (int i = 1; i < nbTranches; i++) {
+            TacheTranche tranche = tranches[i];
+            if (tranche.tryUnfork()) {
+                tranche.invoke();
+            } else {
+                tranche.join(); // volée par le pool : aide aux autres tâches puis bloque, sans attente active
+            }
+        }
+    }
+
+    private RayResult executerDDA(double rayDirX, double rayDirY, double joueurX, double joueurY, RayResult result) {
+        long[] mapBits = map.getBits();
+        int motsParLigne = map.getMotsParLigne();
         int mapWidth = map.getWIDTH();
         int mapHeight = map.getHeight();
+        byte[] distances = sautEspaceVide ? map.getDistancesMurs() : null;
 
-        RayResult result = new RayResult();
-        result.rayDirX = Math.cos(rayAngle);
-        result.rayDirY = Math.sin(rayAngle);
+        result.side = false;
+        result.rayDirX = rayDirX;
+        result.rayDirY = rayDirY;
 
         double deltaDistX = Math.abs(1 / result.rayDirX);
         double deltaDistY = Math.abs(1 / result.rayDirY);
@@ -138,6 +549,21 @@ public class Raycasting implements GameRenderer {
         // Effectuer le DDA
         boolean hit = false;
         while (!hit) {
+            if (distances != null && mapX >= 0 && mapX < mapWidth && mapY >= 0 && mapY < mapHeight) {
+                int rayon = (distances[mapY * mapWidth + mapX] & 0xFF) - 1;
+                if (rayon > 0) {
+                    // Toutes les cases à moins de "rayon" cases de la case courante sont vides : on saute
+                    // les pas du DDA qui précèdent la sortie de ce carré (même suite de cases qu'en pas à pas)
+                    double tSortie = Math.min(sideDistX + rayon * deltaDistX, sideDistY + rayon * deltaDistY);
+                    int pasX = nombrePasAvant(sideDistX, deltaDistX, tSortie, rayon);
+                    int pasY = nombrePasAvant(sideDistY, deltaDistY, tSortie, rayon);
+                    sideDistX += pasX * deltaDistX;
+                    mapX += pasX * result.stepX;
+                    sideDistY += pasY * deltaDistY;
+                    mapY += pasY * result.stepY;
+                }
+            }
+
             if (sideDistX < sideDistY) {
                 sideDistX += deltaDistX;
                 mapX += result.stepX;
@@ -148,14 +574,24 @@ public class Raycasting implements GameRenderer {
                 result.side = true;
             }
 
-            hit = isHit(mapX, mapY, mapWidth, mapHeight, mapData);
+            hit = isHit(mapX, mapY, mapWidth, mapHeight, mapBits, motsParLigne);
         }
 
         // Calculer la distance perpendiculaire
         result.perpWallDist = calculerPerpWallDist(result, mapX, mapY, joueurX, joueurY);
+        result.texId = map.getTextureId(mapX, mapY);
         return result;
     }
 
+    /**
+     * Nombre de pas du DDA sur un axe dont l'instant est strictement avant t (au plus max)
+     */
+    private static int nombrePasAvant(double sideDist, double deltaDist, double t, int max) {
+        if (!(sideDist < t)) return 0;
+        double pas = Math.ceil((t - sideDist) / deltaDist);
+        return pas >= max ? max : (int) pas;
+    }
+
     private double calculerSideDistX(RayResult result, double joueurX, int mapX, double deltaDistX) {
         if (result.rayDirX < 0) {
             result.stepX = -1;
@@ -185,22 +621,39 @@ public class Raycasting implements GameRenderer {
         int drawStart = Math.max(0, drawStartRaw);
         int drawEnd = Math.min(screenHeight - 1, drawEndRaw);
 
-        int x1 = (rayIndex * screenWidth) / NUM_RAYS;
-        int x2 = ((rayIndex + 1) * screenWidth) / NUM_RAYS;
+        int x1 = (rayIndex * screenWidth) / numRays;
+        int x2 = ((rayIndex + 1) * screenWidth) / numRays;
 
-        int texY = calculerTexY(result, joueurX, joueurY);
+        int largeurTexture = texturesMurs != null ? texturesMurs.getLargeur(result.texId) : texWidth;
+        int mip = 0;
+        if (mipmaps) {
+            int hauteurTexture = texturesMurs != null ? texturesMurs.getHauteur(result.texId) : texHeight;
+            int nbMips = texturesMurs != null ? texturesMurs.getNbMips(result.texId) : (murMips != null ? murMips.length : 1);
+            mip = Mipmaps.choisirNiveau(hauteurTexture, lineHeight, nbMips);
+        }
+        int texX = calculerTexX(result, joueurX, joueurY, Mipmaps.taille(largeurTexture, mip));
+        // distance constante le long de la colonne : un seul niveau de lumière
+        int niveau = eclairage != null ? eclairage.getNiveau(result.perpWallDist) : -1;
 
         for (int screenX = x1; screenX < x2 && screenX < screenWidth; screenX++) {
             zBuffer[screenX] = result.perpWallDist;
-            dessinerPixelsColonne(screenX, screenWidth, drawStart, drawEnd, drawStartRaw, drawEndRaw, texY, result.side);
+            if (texturesMurs != null) {
+                dessinerColonnePalette(screenX, screenWidth, drawStart, drawEnd, drawStartRaw, drawEndRaw, texX,
+                        result.texId, mip, result.side, niveau);
+            } else {
+                dessinerPixelsColonne(screenX, screenWidth, drawStart, drawEnd, drawStartRaw, drawEndRaw, texX, mip, result.side, niveau);
+            }
         }
     }
 
-    private boolean isHit(int mapX, int mapY, int mapWidth, int mapHeight, boolean[][] mapData) {
+    private boolean isHit(int mapX, int mapY, int mapWidth, int mapHeight, long[] mapBits, int motsParLigne) {
         if (mapX < 0 || mapX >= mapWidth || mapY < 0 || mapY >= mapHeight) {
             return true;
         }
-        return mapData[mapY][mapX];
+        if (mapBits == null) {
+            return map.isWall(mapX, mapY); // map paginée : grille non résidente
+        }
+        return ((mapBits[mapY * motsParLigne + (mapX >>> 6)] >>> mapX) & 1L) != 0;
     }
 
     private double calculerPerpWallDist(RayResult result, int mapX, int mapY, double joueurX, double joueurY) {
@@ -211,44 +664,148 @@ public class Raycasting implements GameRenderer {
         }
     }
 
-    private int calculerTexY(RayResult result, double joueurX, double joueurY) {
-        double wallY = result.side
+    /**
+     * Colonne de texture touchée (position horizontale de l'impact le long du mur)
+     */
+    private int calculerTexX(RayResult result, double joueurX, double joueurY, int texWidth) {
+        double wallX = result.side
                 ? joueurX + result.perpWallDist * result.rayDirX
                 : joueurY + result.perpWallDist * result.rayDirY;
-        wallY -= Math.floor(wallY);
+        wallX -= Math.floor(wallX);
 
-        int texY = (int) (wallY * texHeight);
+        int texX = (int) (wallX * texWidth);
         if ((!result.side && result.rayDirX > 0) || (result.side && result.rayDirY < 0)) {
-            texY = texHeight - texY - 1;
+            texX = texWidth - texX - 1;
         }
-        return Math.clamp(texY, 0, texHeight - 1);
+        return Math.clamp(texX, 0, texWidth - 1);
     }
 
+    /**
+     * @param mip    Niveau de mipmap lu (texX est déjà exprimé dans ce niveau)
+     * @param niveau Niveau de lumière de la colonne (-1 sans éclairage)
+     */
     private void dessinerPixelsColonne(int screenX, int screenWidth, int drawStart, int drawEnd,
-                                       int drawStartRaw, int drawEndRaw, int texY, boolean side) {
-        if (wallTexturePixels != null) {
-            dessinerColonneTexturee(screenX, screenWidth, drawStart, drawEnd, drawStartRaw, drawEndRaw, texY, side);
+                                       int drawStartRaw, int drawEndRaw, int texX, int mip, boolean side, int niveau) {
+        if (wallTexturePixels != null && texturePasFixe) {
+            dessinerColonneTextureeFixe(screenX, screenWidth, drawStart, drawEnd, drawStartRaw, drawEndRaw, texX, mip, side, niveau);
+        } else if (wallTexturePixels != null) {
+            dessinerColonneTexturee(screenX, screenWidth, drawStart, drawEnd, drawStartRaw, drawEndRaw, texX, mip, side, niveau);
         } else {
-            dessinerColonneCouleur(screenX, screenWidth, drawStart, drawEnd, side);
+            dessinerColonneCouleur(screenX, screenWidth, drawStart, drawEnd, side, niveau);
         }
     }
 
     private void dessinerColonneTexturee(int screenX, int screenWidth, int drawStart, int drawEnd,
-                                         int drawStartRaw, int drawEndRaw, int texY, boolean side) {
+                                         int drawStartRaw, int drawEndRaw, int texX, int mip, boolean side, int niveau) {
+        int hauteurTexture = Mipmaps.taille(texHeight, mip);
+        int[] texture = murMips[mip];
         for (int y = drawStart; y <= drawEnd; y++) {
-            double d = (double) (y - drawStartRaw) / (double) (drawEndRaw - drawStartRaw);
-            int texX = Math.clamp((int) (d * texWidth), 0, texWidth - 1);
-            int color = wallTexturePixels[texY * texWidth + texX];
+            // produit entier exact avant l'unique division : même ligne que le pas fixe
+            double d = (double) (y - drawStartRaw) * hauteurTexture / (double) (drawEndRaw - drawStartRaw);
+            int texY = Math.clamp((int) d, 0, hauteurTexture - 1);
+            int color = texture[texX * hauteurTexture + texY];
 
             if (side) {
                 color = assombrirCouleur(color);
             }
+            if (niveau >= 0) {
+                color = eclairage.ombrer(color, niveau);
+            }
             screenPixels[y * screenWidth + screenX] = color;
         }
     }
 
-    private void dessinerColonneCouleur(int screenX, int screenWidth, int drawStart, int drawEnd, boolean side) {
+    /**
+     * Version à pas fixe 32.32 : la coordonnée de texture avance d'un pas constant par pixel,
+     * la boucle interne se résume à une addition, un décalage et une lecture.
+     * Lit la copie colonne par colonne : les texels successifs sont contigus en mémoire.
+     */
+    private void dessinerColonneTextureeFixe(int screenX, int screenWidth, int drawStart, int drawEnd,
+                                             int drawStartRaw, int drawEndRaw, int texX, int mip, boolean side, int niveau) {
+        // Mur plus loin que la hauteur d'écran en cases : une seule ligne, qui doit quand même être écrite
+        int hauteurColonne = Math.max(1, drawEndRaw - drawStartRaw);
+        int hauteurTexture = Mipmaps.taille(texHeight, mip);
+        long pas = pasTexture(hauteurTexture, hauteurColonne);
+        long pos = (drawStart - drawStartRaw) * pas;
+        int finPas = Math.min(drawEnd, drawStartRaw + hauteurColonne - 1);
+        int[] texture;
+        if (niveau >= 0 && murNiveaux != null) {
+            texture = side ? murSombreNiveaux[mip][niveau] : murNiveaux[mip][niveau];
+            niveau = -1; // déjà ombrée
+        } else {
+            texture = side ? murSombreMips[mip] : murMips[mip];
+        }
+        int base = texX * hauteurTexture;
+
+        int index = drawStart * screenWidth + screenX;
+        if (niveau < 0) {
+            for (int y = drawStart; y <= finPas; y++) {
+                screenPixels[index] = texture[base + (int) (pos >>> 32)];
+                pos += pas;
+                index += screenWidth;
+            }
+            if (finPas < drawEnd) {
+                screenPixels[index] = texture[base + hauteurTexture - 1];
+            }
+            return;
+        }
+        Eclairage ombrage = eclairage;
+        for (int y = drawStart; y <= finPas; y++) {
+            screenPixels[index] = ombrage.ombrer(texture[base + (int) (pos >>> 32)], niveau);
+            pos += pas;
+            index += screenWidth;
+        }
+        if (finPas < drawEnd) {
+            screenPixels[index] = ombrage.ombrer(texture[base + hauteurTexture - 1], niveau);
+        }
+    }
+
+    /**
+     * Pas vertical en virgule fixe 32.32, arrondi au-dessus : au pixel k de la colonne, (k * pas) >>> 32 vaut
+     * exactement k * hauteurTexture / hauteurColonne (division entière) pour k < hauteurColonne <= 65536,
+     * la ligne lue par le calcul flottant. Le pixel k = hauteurColonne (bas du mur) lit la dernière ligne.
+     */
+    static long pasTexture(int hauteurTexture, int hauteurColonne) {
+        return (((long) hauteurTexture << 32) + hauteurColonne - 1) / hauteurColonne;
+    }
+
+    /**
+     * Colonne à pas fixe 32.32 dans une texture 8 bits : un octet lu par pixel puis traduit par la palette
+     * (normale, assombrie ou ombrée au niveau de la colonne)
+     */
+    private void dessinerColonnePalette(int screenX, int screenWidth, int drawStart, int drawEnd,
+                                        int drawStartRaw, int drawEndRaw, int texX, int texId, int mip,
+                                        boolean side, int niveau) {
+        int hauteurColonne = Math.max(1, drawEndRaw - drawStartRaw);
+        int hauteurTexture = Mipmaps.taille(texturesMurs.getHauteur(texId), mip);
+        long pas = pasTexture(hauteurTexture, hauteurColonne);
+        long pos = (drawStart - drawStartRaw) * pas;
+        int finPas = Math.min(drawEnd, drawStartRaw + hauteurColonne - 1);
+        byte[] texture = texturesMurs.getTexels(texId, mip);
+        int[] palette;
+        if (niveau >= 0) {
+            palette = side ? paletteMurSombreNiveaux[niveau] : paletteMurNiveaux[niveau];
+        } else {
+            palette = side ? paletteMurSombre : paletteMur;
+        }
+        int base = texX * hauteurTexture;
+
+        int index = drawStart * screenWidth + screenX;
+        for (int y = drawStart; y <= finPas; y++) {
+            screenPixels[index] = palette[texture[base + (int) (pos >>> 32)] & 0xFF];
+            pos += pas;
+            index += screenWidth;
+        }
+        if (finPas < drawEnd) {
+            screenPixels[index] = palette[texture[base + hauteurTexture - 1] & 0xFF];
+        }
+    }
+
+    private void dessinerColonneCouleur(int screenX, int screenWidth, int drawStart, int drawEnd, boolean side, int niveau) {
         int color = side ? WALL_COLOR_DARK : WALL_COLOR_LIGHT;
+        if (niveau >= 0) {
+            color = eclairage.ombrer(color, niveau);
+        }
         for (int y = drawStart; y <= drawEnd; y++) {
             screenPixels[y * screenWidth + screenX] = color;
         }
@@ -261,45 +818,99 @@ public class Raycasting implements GameRenderer {
         return (0xFF << 24) | (r << 16) | (g << 8) | b;
     }
 
-    private void dessinerSprites(Graphics g, int screenWidth, int screenHeight,
+    /**
+     * Rasteriser les sprites triés directement dans screenPixels (du plus loin au plus proche)
+     */
+    private void dessinerSprites(int screenWidth, int screenHeight,
                                  double joueurX, double joueurY, double joueurAngle, double fov) {
+        if (pseudoSprites.length < nbSpritesTries) {
+            pseudoSprites = new Sprite[spritesTries.length];
+            pseudoX = new int[spritesTries.length];
+            pseudoY = new int[spritesTries.length];
+        }
+        nbPseudos = 0;
 
-        List<Sprite> sortedSprites = trierSpritesParDistance(joueurX, joueurY);
-        Graphics2D g2d = (Graphics2D) g;
+        for (int i = 0; i < nbSpritesTries; i++) {
+            dessinerUnSprite(spritesTries[i], screenWidth, screenHeight, joueurX, joueurY, joueurAngle, fov);
+        }
+    }
 
-        for (Sprite sprite : sortedSprites) {
-            dessinerUnSprite(g2d, sprite, screenWidth, screenHeight, joueurX, joueurY, joueurAngle, fov);
+    /**
+     * Pseudos des sprites visibles, dessinés en Java2D par dessus l'image (texte)
+     */
+    private void dessinerPseudos(Graphics g) {
+        Graphics2D g2d = (Graphics2D) g;
+        for (int i = 0; i < nbPseudos; i++) {
+            dessinerPseudo(g2d, pseudoSprites[i].getPlayerName(), pseudoX[i], pseudoY[i]);
         }
     }
 
-    private List<Sprite> trierSpritesParDistance(double joueurX, double joueurY) {
-        List<Sprite> sortedSprites = new ArrayList<>(sprites);
-        sortedSprites.sort((a, b) -> {
-            double distA = (a.getX() - joueurX) * (a.getX() - joueurX) + (a.getY() - joueurY) * (a.getY() - joueurY);
-            double distB = (b.getX() - joueurX) * (b.getX() - joueurX) + (b.getY() - joueurY) * (b.getY() - joueurY);
-            return Double.compare(distB, distA);
-        });
-        return sortedSprites;
+    /**
+     * Trier les sprites du plus loin au plus proche dans spritesTries (tri par insertion,
+     * sans liste ni comparateur alloués à chaque frame)
+     * @return le nombre de sprites à dessiner
+     */
+    private int trierSpritesParDistance(double joueurX, double joueurY) {
+        if (spritesTries.length <= sprites.size()) {
+            int capacite = Math.max(spritesTries.length * 2, sprites.size() + 1);
+            spritesTries = new Sprite[capacite];
+            distancesSprites = new double[capacite];
+        }
+        // toArray copie dans le tableau fourni s'il est assez grand (et termine par null s'il reste de la place)
+        Sprite[] tries = sprites.toArray(spritesTries);
+        if (tries != spritesTries) {
+            spritesTries = tries;
+            distancesSprites = new double[tries.length];
+        }
+
+        int n = 0;
+        while (n < spritesTries.length && spritesTries[n] != null) {
+            Sprite sprite = spritesTries[n];
+            double dx = sprite.getX() - joueurX;
+            double dy = sprite.getY() - joueurY;
+            double dist = dx * dx + dy * dy;
+
+            int j = n - 1;
+            while (j >= 0 && distancesSprites[j] < dist) {
+                spritesTries[j + 1] = spritesTries[j];
+                distancesSprites[j + 1] = distancesSprites[j];
+                j--;
+            }
+            spritesTries[j + 1] = sprite;
+            distancesSprites[j + 1] = dist;
+            n++;
+        }
+        return n;
     }
 
-    private void dessinerUnSprite(Graphics2D g2d, Sprite sprite, int screenWidth, int screenHeight,
+    private void dessinerUnSprite(Sprite sprite, int screenWidth, int screenHeight,
                                   double joueurX, double joueurY, double joueurAngle, double fov) {
         //position relative du sprite par rapport au joueur
         double spriteX = sprite.getX() - joueurX;
         double spriteY = sprite.getY() - joueurY;
 
-        //calculer l'angle vers le sprite
-        double angleDiff = normaliserAngle(Math.atan2(spriteY, spriteX) - joueurAngle);
+        double spriteDistance;
+        int spriteScreenX;
+        if (projectionPlanCamera) {
+            //coordonnées dans le repère caméra : profondeur le long de dir, décalage le long du plan
+            spriteDistance = spriteX * camDirX + spriteY * camDirY;
+            if (spriteDistance < 0.1) return; // Derrière ou trop proche
+            double decalage = (spriteY * camDirX - spriteX * camDirY) / Math.tan(fov / 2);
+            spriteScreenX = (int) ((0.5 + decalage / (2 * spriteDistance)) * screenWidth);
+        } else {
+            //calculer l'angle vers le sprite
+            double angleDiff = normaliserAngle(Math.atan2(spriteY, spriteX) - joueurAngle);
 
-        //verifier si le sprite est dans le FOV
-        if (Math.abs(angleDiff) > fov / 2 + 0.2) return;
+            //verifier si le sprite est dans le FOV
+            if (Math.abs(angleDiff) > fov / 2 + 0.2) return;
 
-        //distance au sprite
-        double spriteDistance = Math.sqrt(spriteX * spriteX + spriteY * spriteY);
-        if (spriteDistance < 0.1) return; // Trop proche
+            //distance au sprite
+            spriteDistance = Math.sqrt(spriteX * spriteX + spriteY * spriteY);
+            if (spriteDistance < 0.1) return; // Trop proche
 
-        //position X sur l'ecran
-        int spriteScreenX = (int) ((0.5 + angleDiff / fov) * screenWidth);
+            //position X sur l'ecran
+            spriteScreenX = (int) ((0.5 + angleDiff / fov) * screenWidth);
+        }
 
         //taille du sprite à l'ecran (carré)
         int spriteSize = (int) (screenHeight / spriteDistance);
@@ -312,10 +923,17 @@ public class Raycasting implements GameRenderer {
         if (!isSpriteVisible(spriteDistance, drawStartX, drawEndX, screenWidth)) return;
 
         //dessiner le sprite avec clipping par colonne
-        dessinerSpriteImage(g2d, sprite, spriteDistance, spriteSize, drawStartX, drawStartY, drawEndX, screenWidth);
-
-        //dessiner le pseudo au-dessus du sprite
-        dessinerPseudo(g2d, sprite.getPlayerName(), spriteScreenX, drawStartY);
+        dessinerSpriteImage(sprite, spriteDistance, spriteSize, drawStartX, drawStartY, drawEndX,
+                screenWidth, screenHeight);
+
+        //le pseudo sera dessiné au-dessus du sprite après la copie à l'écran
+        String playerName = sprite.getPlayerName();
+        if (playerName != null && !playerName.isEmpty()) {
+            pseudoSprites[nbPseudos] = sprite;
+            pseudoX[nbPseudos] = spriteScreenX;
+            pseudoY[nbPseudos] = drawStartY;
+            nbPseudos++;
+        }
     }
 
     private double normaliserAngle(double angle) {
@@ -333,39 +951,89 @@ public class Raycasting implements GameRenderer {
         return false;
     }
 
-    private void dessinerSpriteImage(Graphics2D g2d, Sprite sprite, double spriteDistance,
-                                     int spriteSize, int drawStartX, int drawStartY, int drawEndX, int screenWidth) {
-        BufferedImage spriteImage = sprite.getImage();
-        int imgWidth = spriteImage.getWidth();
-        int imgHeight = spriteImage.getHeight();
+    /**
+     * Rasterisation logicielle d'un sprite : test de profondeur par colonne d'écran, puis parcours
+     * (pas fixe 16.16) de la seule plage non transparente de la colonne de texels correspondante.
+     */
+    private void dessinerSpriteImage(Sprite sprite, double spriteDistance, int spriteSize,
+                                     int drawStartX, int drawStartY, int drawEndX,
+                                     int screenWidth, int screenHeight) {
+        if (spriteSize <= 0) return;
+        TextureSprite texture = getTextureSprite(sprite.getImage());
+        if (mipmaps) {
+            texture = texture.getMip(Mipmaps.choisirNiveau(texture.getHauteur(), spriteSize, texture.getNbMips()));
+        }
+        int imgWidth = texture.getLargeur();
+        int imgHeight = texture.getHauteur();
+        int[] texels = texture.getTexels();
+        Eclairage ombrage = eclairage;
+        int niveau = ombrage != null ? ombrage.getNiveau(spriteDistance) : -1;
+
+        int pasY = ((imgHeight << 16) - 1) / spriteSize;
 
         for (int stripe = Math.max(0, drawStartX); stripe < Math.min(screenWidth, drawEndX); stripe++) {
-            if (spriteDistance < zBuffer[stripe]) {
-                int texX = (stripe - drawStartX) * imgWidth / spriteSize;
-                if (texX >= 0 && texX < imgWidth) {
-                    g2d.drawImage(spriteImage,
-                            stripe, drawStartY,
-                            stripe + 1, drawStartY + spriteSize,
-                            texX, 0,
-                            texX + 1, imgHeight,
-                            null);
+            if (spriteDistance >= zBuffer[stripe]) continue;
+
+            int texX = (stripe - drawStartX) * imgWidth / spriteSize;
+            if (texX < 0 || texX >= imgWidth) continue;
+
+            int debutTex = texture.getDebutOpaque(texX);
+            int finTex = texture.getFinOpaque(texX);
+            if (finTex < debutTex) continue; // colonne entièrement transparente
+
+            // Plage d'écran couverte par les texels opaques de la colonne
+            int yDebut = Math.max(0, drawStartY + (int) ((long) debutTex * spriteSize / imgHeight));
+            int yFin = Math.min(screenHeight - 1,
+                    drawStartY + (int) (((long) finTex + 1) * spriteSize / imgHeight));
+            yFin = Math.min(yFin, drawStartY + spriteSize - 1);
+
+            int base = texX * imgHeight;
+            int pos = (yDebut - drawStartY) * pasY;
+            int index = yDebut * screenWidth + stripe;
+            for (int y = yDebut; y <= yFin; y++) {
+                int texel = texels[base + (pos >>> 16)];
+                int alpha = texel >>> 24;
+                if (alpha != 0 && niveau >= 0) {
+                    texel = ombrage.ombrer(texel, niveau);
+                }
+                if (alpha == 0xFF) {
+                    screenPixels[index] = texel;
+                } else if (alpha != 0) {
+                    screenPixels[index] = melangerCouleur(texel, screenPixels[index], alpha);
                 }
+                pos += pasY;
+                index += screenWidth;
             }
         }
     }
 
-    private void dessinerPseudo(Graphics2D g2d, String playerName, int spriteScreenX, int drawStartY) {
-        if (playerName == null || playerName.isEmpty()) return;
+    private TextureSprite getTextureSprite(BufferedImage image) {
+        TextureSprite texture = texturesSprites.get(image);
+        if (texture == null) {
+            texture = TextureSprite.depuisImage(image);
+            texturesSprites.put(image, texture);
+        }
+        return texture;
+    }
 
+    private int melangerCouleur(int source, int destination, int alpha) {
+        int inv = 255 - alpha;
+        int r = (((source >> 16) & 0xFF) * alpha + ((destination >> 16) & 0xFF) * inv) / 255;
+        int g = (((source >> 8) & 0xFF) * alpha + ((destination >> 8) & 0xFF) * inv) / 255;
+        int b = ((source & 0xFF) * alpha + (destination & 0xFF) * inv) / 255;
+        return (0xFF << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    private void dessinerPseudo(Graphics2D g2d, String playerName, int spriteScreenX, int drawStartY) {
         String displayName = truncateName(playerName);
-        g2d.setFont(new Font(FONT_ARIAL, Font.BOLD, 16));
+        g2d.setFont(FONT_PSEUDO);
         FontMetrics fm = g2d.getFontMetrics();
         int textWidth = fm.stringWidth(displayName);
         int textX = spriteScreenX - textWidth / 2;
         int textY = drawStartY - 10;
 
         //fond gris style pseudo Minecraft
-        g2d.setColor(new Color(0, 0, 0, 150));
+        g2d.setColor(COULEUR_FOND_PSEUDO);
         g2d.fillRect(textX - 4, textY - fm.getAscent(), textWidth + 8, fm.getHeight() + 4);
 
         g2d.setColor(Color.WHITE);
@@ -393,36 +1061,368 @@ public class Raycasting implements GameRenderer {
 
         // Préparer le buffer interne (Redimensionnement automatique si la fenêtre change)
         initScreenBuffer(screenWidth, screenHeight);
+        renderFrame(screenBufferPixels, screenWidth, screenHeight, joueur.getX(), joueur.getY(), joueur.getAngle());
+
+        // 4. Copier les pixels calculés (murs et sprites) sur l'écran en un seul blit
+        // C'est ici qu'on "donne" l'image à la fenêtre
+        g.drawImage(screenBuffer, 0, 0, null);
+
+        // 5. Pseudos au-dessus des sprites (texte Java2D)
+        renderOverlay(g, screenWidth, screenHeight);
+    }
+
+    /**
+     * Calcul de la frame dans le framebuffer fourni (fond, murs, sprites), sans aucun appel Java2D.
+     * Aucune allocation une fois les buffers de travail dimensionnés.
+     * En résolution dynamique, la scène est rendue à une résolution interne réduite puis agrandie.
+     */
+    @Override
+    public void renderFrame(int[] framebuffer, int screenWidth, int screenHeight,
+                            double cameraX, double cameraY, double cameraAngle) {
+        if (screenWidth <= 0 || screenHeight <= 0) return;
+        if (framebuffer.length < screenWidth * screenHeight) {
+            throw new IllegalArgumentException("Framebuffer trop petit: " + framebuffer.length
+                    + " pixels pour " + screenWidth + "x" + screenHeight);
+        }
+        memoriserEtatFrame(screenWidth, screenHeight, cameraX, cameraY, cameraAngle);
+
+        if (!resolutionDynamique) {
+            numRays = NUM_RAYS;
+            rendreScene(framebuffer, screenWidth, screenHeight, cameraX, cameraY, cameraAngle);
+            return;
+        }
+
+        long debut = System.nanoTime();
+        double echelleResolution = getEchelleResolution();
+        int largeurInterne = Math.max(1, (int) Math.round(screenWidth * echelleResolution));
+        int hauteurInterne = Math.max(1, (int) Math.round(screenHeight * echelleResolution));
+        numRays = Math.max(MIN_RAYONS_DYNAMIQUE, (int) Math.round(NUM_RAYS * echelleResolution));
 
-        // Reset Z-Buffer
-        zBuffer = new double[screenWidth];
+        if (largeurInterne == screenWidth && hauteurInterne == screenHeight) {
+            rendreScene(framebuffer, screenWidth, screenHeight, cameraX, cameraY, cameraAngle);
+        } else {
+            // Buffer interne dimensionné à la taille de sortie : réutilisé quelle que soit l'échelle
+            if (bufferInterne == null || bufferInterne.length < screenWidth * screenHeight) {
+                bufferInterne = new int[screenWidth * screenHeight];
+            }
+            rendreScene(bufferInterne, largeurInterne, hauteurInterne, cameraX, cameraY, cameraAngle);
+            agrandir(bufferInterne, largeurInterne, hauteurInterne, framebuffer, screenWidth, screenHeight);
+            // Pseudos replacés dans les coordonnées de la fenêtre
+            for (int i = 0; i < nbPseudos; i++) {
+                pseudoX[i] = pseudoX[i] * screenWidth / largeurInterne;
+                pseudoY[i] = pseudoY[i] * screenHeight / hauteurInterne;
+            }
+        }
+
+        ajusterEchelle(System.nanoTime() - debut);
+    }
+
+    /**
+     * Agrandissement au plus proche voisin : table de colonnes source pré-calculée,
+     * et copie directe de la ligne précédente quand deux lignes de sortie lisent la même ligne source.
+     */
+    private void agrandir(int[] source, int largeurSource, int hauteurSource,
+                          int[] destination, int largeurDest, int hauteurDest) {
+        if (colonnesSource == null || colonnesSource.length < largeurDest
+                || largeurSourceTable != largeurSource || largeurDestTable != largeurDest) {
+            if (colonnesSource == null || colonnesSource.length < largeurDest) {
+                colonnesSource = new int[largeurDest];
+            }
+            for (int x = 0; x < largeurDest; x++) {
+                colonnesSource[x] = x * largeurSource / largeurDest;
+            }
+            largeurSourceTable = largeurSource;
+            largeurDestTable = largeurDest;
+        }
+
+        int ligneSourcePrecedente = -1;
+        for (int y = 0; y < hauteurDest; y++) {
+            int ligneSource = y * hauteurSource / hauteurDest;
+            int debutDest = y * largeurDest;
+            if (ligneSource == ligneSourcePrecedente) {
+                System.arraycopy(destination, debutDest - largeurDest, destination, debutDest, largeurDest);
+                continue;
+            }
+            int debutSource = ligneSource * largeurSource;
+            for (int x = 0; x < largeurDest; x++) {
+                destination[debutDest + x] = source[debutSource + colonnesSource[x]];
+            }
+            ligneSourcePrecedente = ligneSource;
+        }
+    }
+
+    /**
+     * Régulation de l'échelle : moyenne glissante du temps de frame comparée à la cible,
+     * échelle modifiée par paliers pour ne pas recalculer les tables à chaque frame.
+     * Appelée après chaque frame en résolution dynamique (et par les tests avec des durées simulées).
+     */
+    void ajusterEchelle(long dureeFrameNanos) {
+        double dureeMs = dureeFrameNanos / 1_000_000.0;
+        tempsFrameMoyenMs = tempsFrameMoyenMs == 0 ? dureeMs : tempsFrameMoyenMs * 0.9 + dureeMs * 0.1;
+
+        if (++framesDepuisAjustement < FRAMES_ENTRE_AJUSTEMENTS) return;
+        framesDepuisAjustement = 0;
+
+        if (tempsFrameMoyenMs > tempsFrameCibleMs && palierEchelle > PALIER_MIN) {
+            palierEchelle--;
+        } else if (tempsFrameMoyenMs < tempsFrameCibleMs * 0.75 && palierEchelle < PALIERS_ECHELLE) {
+            palierEchelle++;
+        }
+    }
+
+    private void rendreScene(int[] framebuffer, int screenWidth, int screenHeight,
+                             double cameraX, double cameraY, double cameraAngle) {
+        screenPixels = framebuffer;
+        // Z-Buffer réutilisé d'une frame à l'autre (chaque colonne est réécrite par les rayons)
+        if (zBuffer == null || zBuffer.length < screenWidth) {
+            zBuffer = new double[screenWidth];
+        }
+
+        camX = cameraX;
+        camY = cameraY;
+        camAngle = cameraAngle;
+        camDirX = Math.cos(camAngle);
+        camDirY = Math.sin(camAngle);
+        camFov = Math.toRadians(fovDegres);
 
         // 1. Remplir le tableau de pixels (Ciel/Sol)
         dessinerFond(screenWidth, screenHeight);
 
         // 2. Raycasting (Murs)
-        double fov = Math.toRadians(FOV);
-        lancerRayons(screenWidth, screenHeight, fov);
+        lancerRayons(screenWidth, screenHeight);
 
-        // 3. Copier les pixels calculés sur l'écran
-        // C'est ici qu'on "donne" l'image à la fenêtre
-        g.drawImage(screenBuffer, 0, 0, null);
+        // 3. Sprites rasterisés dans le même buffer (du plus loin au plus proche)
+        nbSpritesTries = trierSpritesParDistance(camX, camY);
+        dessinerSprites(screenWidth, screenHeight, camX, camY, camAngle, camFov);
+    }
 
-        // 4. Sprites (doivent être dessinés par dessus l'image car ils ont de la transparence)
-        // Note: Idéalement, les sprites devraient aussi écrire dans screenPixels,
-        // mais utiliser Graphics2D ici est plus simple pour gérer la transparence PNG.
-        dessinerSprites(g, screenWidth, screenHeight, joueur.getX(), joueur.getY(), joueur.getAngle(), fov);
+    /**
+     * Pseudos des sprites visibles lors de la dernière frame
+     */
+    @Override
+    public void renderOverlay(Graphics g, int screenWidth, int screenHeight) {
+        dessinerPseudos(g);
     }
 
     private void initScreenBuffer(int width, int height) {
         if (screenBuffer == null || lastScreenWidth != width || lastScreenHeight != height) {
             screenBuffer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-            screenPixels = ((DataBufferInt) screenBuffer.getRaster().getDataBuffer()).getData();
+            screenBufferPixels = ((DataBufferInt) screenBuffer.getRaster().getDataBuffer()).getData();
             lastScreenWidth = width;
             lastScreenHeight = height;
         }
     }
 
-    public void addSprite(Sprite sprite) { sprites.add(sprite); }
-    public void removeSprite(Sprite sprite) { sprites.remove(sprite); }
-}
\ No newline at end of file
+    /**
+     * Active le rendu des murs sur plusieurs coeurs (image identique au rendu mono-thread)
+     */
+    public void setRenduParallele(boolean renduParallele) { this.renduParallele = renduParallele; }
+    public boolean isRenduParallele() { return renduParallele; }
+
+    /**
+     * Active la projection sur le plan caméra (rayons dérivés d'une seule rotation de la direction
+     * du joueur, sans l'effet fisheye du pas angulaire)
+     */
+    public void setProjectionPlanCamera(boolean projectionPlanCamera) {
+        this.projectionPlanCamera = projectionPlanCamera;
+        versionConfig.incrementAndGet();
+    }
+    public boolean isProjectionPlanCamera() { return projectionPlanCamera; }
+
+    /**
+     * Choisit l'échantillonnage des colonnes texturées : pas fixe 32.32 (par défaut) ou calcul flottant par pixel
+     */
+    public void setTexturePasFixe(boolean texturePasFixe) {
+        this.texturePasFixe = texturePasFixe;
+        versionConfig.incrementAndGet();
+    }
+    public boolean isTexturePasFixe() { return texturePasFixe; }
+
+    /**
+     * Active la résolution dynamique : la résolution interne et le nombre de rayons s'adaptent
+     * au temps de frame mesuré, l'image est agrandie au plus proche voisin à la taille de sortie.
+     */
+    public void setResolutionDynamique(boolean resolutionDynamique) {
+        this.resolutionDynamique = resolutionDynamique;
+        if (!resolutionDynamique) {
+            palierEchelle = PALIERS_ECHELLE;
+        }
+        versionConfig.incrementAndGet();
+    }
+    public boolean isResolutionDynamique() { return resolutionDynamique; }
+
+    public void setTempsFrameCible(double tempsFrameCibleMs) {
+        if (tempsFrameCibleMs <= 0) {
+            throw new IllegalArgumentException("Temps de frame cible invalide: " + tempsFrameCibleMs + " ms");
+        }
+        this.tempsFrameCibleMs = tempsFrameCibleMs;
+    }
+    public double getTempsFrameCible() { return tempsFrameCibleMs; }
+
+    /** Échelle actuelle de la résolution interne (1.0 = pleine résolution) */
+    public double getEchelleResolution() { return (double) palierEchelle / PALIERS_ECHELLE; }
+
+    /** Temps de frame moyen mesuré en résolution dynamique (ms) */
+    public double getTempsFrameMoyen() { return tempsFrameMoyenMs; }
+
+    /**
+     * Active les mipmaps : une colonne de mur ou un sprite lit le niveau de sa texture qui garde environ
+     * un texel par pixel de hauteur à l'écran (chaînes construites au chargement des textures)
+     */
+    public void setMipmaps(boolean mipmaps) {
+        this.mipmaps = mipmaps;
+        versionConfig.incrementAndGet();
+    }
+    public boolean isMipmaps() { return mipmaps; }
+
+    /**
+     * Active le panorama 360° : tant que la caméra ne se déplace pas (rotation sur place à la souris),
+     * les rayons réutilisent les impacts déjà calculés depuis cette position au lieu de relancer le DDA.
+     * Chaque rayon prend l'impact de la direction échantillonnée la plus proche (deux directions par rayon
+     * d'écran sur 360°) : l'image peut différer d'un pixel du rendu sans panorama sur les arêtes des murs.
+     */
+    public void setPanorama(boolean panorama) {
+        this.panorama = panorama;
+        panoMap = null; // entrées remplies avant une désactivation : position/map non suivies entre-temps
+        versionConfig.incrementAndGet();
+    }
+    public boolean isPanorama() { return panorama; }
+
+    /** Rayons servis par le panorama depuis la dernière remise à zéro */
+    public long getRayonsPanoramaServis() { return rayonsPanoramaServis.sum(); }
+
+    /** Rayons pour lesquels le panorama a dû lancer le DDA */
+    public long getRayonsPanoramaLances() { return rayonsPanoramaLances.sum(); }
+
+    /** Part des rayons servis par le panorama (0 si aucun rayon n'est passé par lui) */
+    public double getTauxPanorama() {
+        long servis = getRayonsPanoramaServis();
+        long total = servis + getRayonsPanoramaLances();
+        return total == 0 ? 0 : (double) servis / total;
+    }
+
+    public void resetStatistiquesPanorama() {
+        rayonsPanoramaServis.reset();
+        rayonsPanoramaLances.reset();
+    }
+
+    /**
+     * Active le saut des zones vides : le DDA franchit d'un coup les cases dont le champ de distance
+     * garantit qu'elles sont vides, et touche exactement le même mur qu'en pas à pas
+     * @throws UnsupportedOperationException si la map n'a pas de champ de distance (MapBoolPaginee)
+     */
+    public void setSautEspaceVide(boolean sautEspaceVide) {
+        // construit ici plutôt qu'au premier rayon d'une frame
+        if (sautEspaceVide && map.getDistancesMurs() == null) {
+            throw new UnsupportedOperationException("Saut des zones vides impossible : la map n'a pas de champ de distance");
+        }
+        this.sautEspaceVide = sautEspaceVide;
+    }
+    public boolean isSautEspaceVide() { return sautEspaceVide; }
+
+    /**
+     * Ombrage par distance (brouillard) des murs et des sprites, null pour le désactiver.
+     * Les textures 32 bits de taille raisonnable sont pré-ombrées par niveau ici (plafonné à
+     * OCTETS_MAX_PRE_OMBRES par texture) ; au-delà, et pour les sprites, chaque texel lu passe par les tables.
+     */
+    public void setEclairage(Eclairage eclairage) {
+        this.eclairage = eclairage;
+        preparerOmbrage();
+    }
+    public Eclairage getEclairage() { return eclairage; }
+
+    /**
+     * Textures de murs 8 bits choisies par l'identifiant de texture de la case touchée, null pour revenir
+     * à la texture unique 32 bits (setWallTexture)
+     */
+    public void setTexturesMurs(BanqueTextures texturesMurs) {
+        this.texturesMurs = texturesMurs;
+        if (texturesMurs == null) {
+            paletteMur = null;
+            paletteMurSombre = null;
+        } else {
+            paletteMur = texturesMurs.getPalette();
+            paletteMurSombre = new int[paletteMur.length];
+            for (int i = 0; i < paletteMur.length; i++) {
+                paletteMurSombre[i] = assombrirCouleur(paletteMur[i]);
+            }
+        }
+        preparerOmbrage();
+    }
+    public BanqueTextures getTexturesMurs() { return texturesMurs; }
+
+    public void setFov(int fovDegres) {
+        if (fovDegres <= 0 || fovDegres >= 180) {
+            throw new IllegalArgumentException("FOV invalide: " + fovDegres + " (attendu entre 1 et 179 degrés)");
+        }
+        this.fovDegres = fovDegres;
+        versionConfig.incrementAndGet();
+    }
+    public int getFov() { return fovDegres; }
+
+    public void addSprite(Sprite sprite) {
+        sprites.add(sprite);
+        versionListeSprites.incrementAndGet();
+    }
+
+    public void removeSprite(Sprite sprite) {
+        if (sprites.remove(sprite)) versionListeSprites.incrementAndGet();
+    }
+
+    /**
+     * Vrai si une frame rendue maintenant avec ces paramètres serait identique à la dernière frame
+     * rendue : même caméra et même taille, et ni la map, ni les sprites (liste et positions), ni les
+     * réglages du rendu n'ont changé depuis. L'appelant peut alors garder son framebuffer tel quel.
+     */
+    @Override
+    public boolean isFrameAJour(int width, int height, double cameraX, double cameraY, double cameraAngle) {
+        long tampon = verrouEtatFrame.tryOptimisticRead();
+        boolean memeEtat = width == derniereLargeur && height == derniereHauteur
+                && cameraX == dernierCamX && cameraY == dernierCamY && cameraAngle == dernierCamAngle
+                && map.getVersion() == derniereVersionMap && versionConfig.get() == derniereVersionConfig
+                && versionListeSprites.get() == derniereVersionListeSprites && palierEchelle == dernierPalier;
+        long sommeMemorisee = derniereSommeVersionsSprites;
+        Sprite[] spritesRendus = spritesEtat;
+        if (!verrouEtatFrame.validate(tampon) || !memeEtat) return false; // mémorisation en cours ou scène changée
+
+        // liste inchangée depuis le rendu, donc mêmes sprites que ceux de la frame : chaque version ne fait que
+        // croître, la somme change dès qu'un sprite bouge
+        long somme = 0;
+        for (int i = 0; i < spritesRendus.length && spritesRendus[i] != null; i++) {
+            somme += spritesRendus[i].getVersion();
+        }
+        // tableau réécrit par une mémorisation entre-temps : somme sans valeur
+        return verrouEtatFrame.validate(tampon) && somme == sommeMemorisee;
+    }
+
+    /**
+     * État de la scène au moment du rendu (comparé par isFrameAJour)
+     */
+    private void memoriserEtatFrame(int width, int height, double cameraX, double cameraY, double cameraAngle) {
+        // version de la liste lue avant la copie : un ajout concurrent rend la frame périmée, jamais l'inverse
+        int versionListe = versionListeSprites.get();
+        Sprite[] copie = sprites.toArray(spritesLibres); // sans allocation si le tableau suffit
+        long somme = 0;
+        for (int i = 0; i < copie.length && copie[i] != null; i++) {
+            somme += copie[i].getVersion();
+        }
+
+        long tampon = verrouEtatFrame.writeLock();
+        try {
+            derniereLargeur = width;
+            derniereHauteur = height;
+            dernierCamX = cameraX;
+            dernierCamY = cameraY;
+            dernierCamAngle = cameraAngle;
+            derniereVersionMap = map.getVersion();
+            derniereVersionConfig = versionConfig.get();
+            derniereVersionListeSprites = versionListe;
+            dernierPalier = palierEchelle;
+            derniereSommeVersionsSprites = somme;
+            spritesLibres = spritesEtat;
+            spritesEtat = copie;
+        } finally {
+            verrouEtatFrame.unlockWrite(tampon);
+        }
+    }
+}
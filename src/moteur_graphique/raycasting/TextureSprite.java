@@ -0,0 +1,78 @@
+package moteur_graphique.raycasting;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Image de sprite pré-découpée pour le rasterizer logiciel :
+ * texels rangés colonne par colonne et, pour chaque colonne, la plage de texels non transparents
+ * (les colonnes vides et les bords transparents ne sont jamais parcourus).
+ * Les niveaux de mipmap (voir Mipmaps) sont eux-mêmes des TextureSprite, construits avec l'image.
+ */
+public final class TextureSprite {
+
+    private final int largeur;
+    private final int hauteur;
+    private final int[] texels;        // x * hauteur + y, ARGB
+    private final int[] debutOpaque;   // premier texel non transparent de la colonne
+    private final int[] finOpaque;     // dernier texel non transparent (finOpaque < debutOpaque si colonne vide)
+
+    private TextureSprite[] mips; // mips[0] == this
+
+    private TextureSprite(int largeur, int hauteur, int[] texels, int[] debutOpaque, int[] finOpaque) {
+        this.largeur = largeur;
+        this.hauteur = hauteur;
+        this.texels = texels;
+        this.debutOpaque = debutOpaque;
+        this.finOpaque = finOpaque;
+    }
+
+    public static TextureSprite depuisImage(BufferedImage image) {
+        int largeur = image.getWidth();
+        int hauteur = image.getHeight();
+        int[] lignes = image.getRGB(0, 0, largeur, hauteur, null, 0, largeur);
+
+        int[] texels = new int[largeur * hauteur];
+        for (int x = 0; x < largeur; x++) {
+            for (int y = 0; y < hauteur; y++) {
+                texels[x * hauteur + y] = lignes[y * largeur + x];
+            }
+        }
+
+        int[][] chaine = Mipmaps.construireChaine(texels, largeur, hauteur);
+        TextureSprite[] mips = new TextureSprite[chaine.length];
+        for (int niveau = 0; niveau < chaine.length; niveau++) {
+            mips[niveau] = depuisColonnes(Mipmaps.taille(largeur, niveau), Mipmaps.taille(hauteur, niveau), chaine[niveau]);
+            mips[niveau].mips = mips;
+        }
+        return mips[0];
+    }
+
+    private static TextureSprite depuisColonnes(int largeur, int hauteur, int[] texels) {
+        int[] debutOpaque = new int[largeur];
+        int[] finOpaque = new int[largeur];
+        for (int x = 0; x < largeur; x++) {
+            int debut = hauteur;
+            int fin = -1;
+            for (int y = 0; y < hauteur; y++) {
+                int texel = texels[x * hauteur + y];
+                if ((texel >>> 24) != 0) {
+                    if (debut == hauteur) debut = y;
+                    fin = y;
+                }
+            }
+            debutOpaque[x] = debut;
+            finOpaque[x] = fin;
+        }
+        return new TextureSprite(largeur, hauteur, texels, debutOpaque, finOpaque);
+    }
+
+    public int getLargeur() { return largeur; }
+    public int getHauteur() { return hauteur; }
+    int[] getTexels() { return texels; }
+    int getDebutOpaque(int x) { return debutOpaque[x]; }
+    int getFinOpaque(int x) { return finOpaque[x]; }
+
+    /** Niveau de mipmap (0 = cette texture), borné au dernier niveau */
+    TextureSprite getMip(int niveau) { return mips[Math.min(niveau, mips.length - 1)]; }
+    int getNbMips() { return mips.length; }
+}
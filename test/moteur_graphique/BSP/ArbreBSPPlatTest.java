@@ -0,0 +1,58 @@
+package moteur_graphique.BSP;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arbre BSP aplati : mêmes réponses que l'arbre d'objets dont il est construit
+ */
+public class ArbreBSPPlatTest {
+
+    @Test
+    void testParcoursEtLocalisationIdentiquesALArbreDObjets() {
+        Random random = new Random(8);
+        Mur[] murs = new Mur[1500];
+        for (int i = 0; i < murs.length; i++) {
+            double x = random.nextDouble() * 50;
+            double y = random.nextDouble() * 50;
+            murs[i] = new Mur(x, y, x + random.nextDouble() * 6 - 3, y + random.nextDouble() * 6 - 3, "mur_" + (i % 3) + ".png");
+        }
+        NoeudBSP racine = new ArbreBSP().construireBSP(new MapMur(murs));
+        ArbreBSPPlat plat = ArbreBSPPlat.depuisArbre(racine);
+
+        int[] ordre = new int[plat.getNbNoeuds()];
+        for (int essai = 0; essai < 50; essai++) {
+            double x = random.nextDouble() * 50;
+            double y = random.nextDouble() * 50;
+
+            List<Mur> attendu = new ArrayList<>();
+            NoeudBSP feuille = ordreAvantArriere(racine, x, y, attendu);
+            assertEquals(attendu.size(), plat.ordreAvantArriere(x, y, ordre));
+            for (int i = 0; i < attendu.size(); i++) {
+                assertEquals(attendu.get(i).toString(), plat.getMur(ordre[i]).toString());
+            }
+
+            int region = plat.localiser(x, y);
+            assertEquals(feuille.getMurDiviseur().toString(), plat.getMur(region / 2).toString());
+        }
+    }
+
+    /**
+     * Ordre avant-arrière de référence, récursif sur les objets ; renvoie le dernier noeud de la descente vers le point
+     */
+    private NoeudBSP ordreAvantArriere(NoeudBSP noeud, double x, double y, List<Mur> ordre) {
+        Mur mur = noeud.getMurDiviseur();
+        boolean aGauche = (mur.x1 - mur.x0) * (y - mur.y0) - (mur.y1 - mur.y0) * (x - mur.x0) >= 0;
+        NoeudBSP devant = aGauche ? noeud.getGauche() : noeud.getDroit();
+        NoeudBSP derriere = aGauche ? noeud.getDroit() : noeud.getGauche();
+        NoeudBSP feuille = devant != null ? ordreAvantArriere(devant, x, y, ordre) : noeud;
+        ordre.add(mur);
+        if (derriere != null) ordreAvantArriere(derriere, x, y, ordre);
+        return feuille;
+    }
+}
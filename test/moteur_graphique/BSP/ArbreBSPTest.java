@@ -0,0 +1,84 @@
+package moteur_graphique.BSP;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Construction de l'arbre BSP : choix du mur diviseur et statistiques
+ */
+public class ArbreBSPTest {
+
+    /**
+     * Murs axiaux de longueur 1 à 5 sur une grille de 100x100, dans un ordre aléatoire
+     */
+    private static Mur[] creerLabyrinthe(int nbMurs, long graine) {
+        Random random = new Random(graine);
+        Mur[] murs = new Mur[nbMurs];
+        for (int i = 0; i < murs.length; i++) {
+            int x = random.nextInt(100);
+            int y = random.nextInt(100);
+            int longueur = 1 + random.nextInt(5);
+            murs[i] = random.nextBoolean() ? new Mur(x, y, x + longueur, y) : new Mur(x, y, x, y + longueur);
+        }
+        return murs;
+    }
+
+    @Test
+    void testDiviseurAuMeilleurCoutReduitCoupesEtProfondeur() {
+        Mur[] murs = creerLabyrinthe(2000, 13);
+
+        ArbreBSP premierMur = new ArbreBSP();
+        premierMur.setCandidatsMax(1);
+        NoeudBSP racine = premierMur.construireBSP(new MapMur(murs));
+        assertSame(murs[0], racine.getMurDiviseur());
+
+        ArbreBSP auCout = new ArbreBSP();
+        auCout.construireBSP(new MapMur(murs));
+
+        // chaque mur ou morceau de mur coupé occupe exactement un noeud
+        assertEquals(murs.length + premierMur.getNbCoupes(), premierMur.getNbNoeuds());
+        assertEquals(murs.length + auCout.getNbCoupes(), auCout.getNbNoeuds());
+        assertTrue(auCout.getNbCoupes() < premierMur.getNbCoupes(),
+                auCout.getNbCoupes() + " coupes contre " + premierMur.getNbCoupes());
+        assertTrue(auCout.getProfondeur() < premierMur.getProfondeur(),
+                "profondeur " + auCout.getProfondeur() + " contre " + premierMur.getProfondeur());
+    }
+
+    @Test
+    void testConstructionParalleleDonneLeMemeArbre() {
+        Mur[] murs = creerLabyrinthe(6000, 21);
+        NoeudBSP sequentiel = new ArbreBSP().construireBSP(new MapMur(murs));
+
+        ArbreBSP arbre = new ArbreBSP();
+        arbre.setConstructionParallele(true);
+        arbre.setSeuilParallele(32); // beaucoup de tâches, même sur une petite map
+        assertArbresEgaux(sequentiel, arbre.construireBSP(new MapMur(murs)));
+    }
+
+    @Test
+    void testMurCoupeGardeSaTexture() {
+        ArbreBSP arbre = new ArbreBSP();
+        arbre.setCandidatsMax(1); // le premier mur divise, le second est coupé en deux
+        NoeudBSP racine = arbre.construireBSP(new MapMur(new Mur[]{
+                new Mur(5, 0, 5, 10, "pierre"), new Mur(0, 5, 10, 5, "brique")}));
+
+        assertEquals(1, arbre.getNbCoupes());
+        assertEquals("pierre", racine.getMurDiviseur().texture);
+        assertEquals("brique", racine.getGauche().getMurDiviseur().texture);
+        assertEquals("brique", racine.getDroit().getMurDiviseur().texture);
+    }
+
+    private void assertArbresEgaux(NoeudBSP attendu, NoeudBSP construit) {
+        if (attendu == null) {
+            assertNull(construit);
+            return;
+        }
+        assertNotNull(construit);
+        assertEquals(attendu.getMurDiviseur().toString(), construit.getMurDiviseur().toString());
+        assertArbresEgaux(attendu.getGauche(), construit.getGauche());
+        assertArbresEgaux(attendu.getDroit(), construit.getDroit());
+    }
+}
@@ -0,0 +1,73 @@
+package moteur_graphique.BSP;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests du rendu BSP (rendu headless dans un framebuffer int[])
+ */
+public class RenduBSPTest {
+
+    private static final int LARGEUR = 640;
+    private static final int HAUTEUR = 360;
+
+    // Salle carrée fermée de 10x10
+    private static final Mur[] SALLE = {
+            new Mur(0, 0, 10, 0),
+            new Mur(10, 0, 10, 10),
+            new Mur(10, 10, 0, 10),
+            new Mur(0, 10, 0, 0),
+    };
+
+    private int[] rendreImage(RenduBSP rendu, double x, double y, double angle) {
+        int[] framebuffer = new int[LARGEUR * HAUTEUR];
+        rendu.renderFrame(framebuffer, LARGEUR, HAUTEUR, x, y, angle);
+        return framebuffer;
+    }
+
+    @Test
+    void testMurFaceALaCameraAUneHauteurConstante() {
+        RenduBSP rendu = new RenduBSP(new ArbreBSP().construireBSP(new MapMur(SALLE)), null);
+        int[] image = rendreImage(rendu, 5, 5, 0);
+
+        // mur est à 5 unités devant la caméra : même hauteur sur toute la largeur (pas de distorsion)
+        int ciel = image[0];
+        int sol = image[(HAUTEUR - 1) * LARGEUR];
+        for (int x = 0; x < LARGEUR; x++) {
+            int hauteurMur = 0;
+            for (int y = 0; y < HAUTEUR; y++) {
+                int pixel = image[y * LARGEUR + x];
+                if (pixel != ciel && pixel != sol) hauteurMur++;
+            }
+            assertEquals(HAUTEUR / 5, hauteurMur, 1, "colonne " + x);
+        }
+        assertEquals(1, rendu.getMursDessines());
+    }
+
+    @Test
+    void testMursCachesDerriereLaSalleIgnores() {
+        List<Mur> murs = new ArrayList<>(List.of(SALLE));
+        Random random = new Random(3);
+        for (int i = 0; i < 3000; i++) {
+            // petits murs hors de la salle, tout autour
+            double x = -50 + random.nextDouble() * 110;
+            double y = random.nextBoolean() ? -50 + random.nextDouble() * 45 : 15 + random.nextDouble() * 45;
+            murs.add(new Mur(x, y, x + random.nextDouble() - 0.5, y + random.nextDouble() - 0.5));
+        }
+        RenduBSP salle = new RenduBSP(new ArbreBSP().construireBSP(new MapMur(SALLE)), null);
+        RenduBSP encombree = new RenduBSP(new ArbreBSP().construireBSP(new MapMur(murs.toArray(new Mur[0]))), null);
+
+        for (double angle = 0; angle < 2 * Math.PI; angle += 0.7) {
+            assertArrayEquals(rendreImage(salle, 3.5, 6.2, angle), rendreImage(encombree, 3.5, 6.2, angle),
+                    "les murs extérieurs sont invisibles depuis la salle (angle " + angle + ")");
+            // parcours arrêté dès l'écran plein : seuls les murs de la salle et quelques boîtes sont examinés
+            assertTrue(encombree.getMursDessines() <= SALLE.length);
+            assertTrue(encombree.getNoeudsVisites() < 100, "noeuds visités : " + encombree.getNoeudsVisites());
+        }
+    }
+}
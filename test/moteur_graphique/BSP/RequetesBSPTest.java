@@ -0,0 +1,123 @@
+package moteur_graphique.BSP;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Requêtes spatiales sur l'arbre BSP aplati, comparées à un calcul direct sur tous les murs
+ */
+public class RequetesBSPTest {
+
+    private static final double RAYON = 0.3;
+
+    private static Mur[] creerMurs(int nbMurs, long graine) {
+        Random random = new Random(graine);
+        Mur[] murs = new Mur[nbMurs];
+        for (int i = 0; i < nbMurs; i++) {
+            double x = random.nextDouble() * 200;
+            double y = random.nextDouble() * 200;
+            murs[i] = new Mur(x, y, x + random.nextDouble() * 4 - 2, y + random.nextDouble() * 4 - 2);
+        }
+        return murs;
+    }
+
+    @Test
+    void testLigneDeVueIdentiqueAuCalculDirect() {
+        Mur[] murs = creerMurs(20_000, 4);
+        ArbreBSP arbre = new ArbreBSP();
+        arbre.construireBSP(new MapMur(murs));
+        ArbreBSPPlat plat = arbre.aplatir();
+
+        Random random = new Random(9);
+        int bloquees = 0;
+        for (int essai = 0; essai < 300; essai++) {
+            double x0 = random.nextDouble() * 200;
+            double y0 = random.nextDouble() * 200;
+            double x1 = x0 + random.nextDouble() * 6 - 3;
+            double y1 = y0 + random.nextDouble() * 6 - 3;
+
+            double attendu = Double.POSITIVE_INFINITY;
+            for (Mur mur : murs) {
+                attendu = Math.min(attendu, intersection(mur, x0, y0, x1, y1));
+            }
+            assertEquals(attendu, plat.intersecterSegment(x0, y0, x1, y1), 1e-9, "segment " + essai);
+            assertEquals(attendu == Double.POSITIVE_INFINITY, plat.ligneDeVue(x0, y0, x1, y1));
+            if (attendu != Double.POSITIVE_INFINITY) bloquees++;
+        }
+        assertTrue(bloquees > 50 && bloquees < 250, bloquees + " lignes bloquées : scénario sans intérêt");
+    }
+
+    @Test
+    void testCercleSArreteAuPremierContact() {
+        Mur[] murs = creerMurs(20_000, 6);
+        ArbreBSP arbre = new ArbreBSP();
+        arbre.construireBSP(new MapMur(murs));
+        ArbreBSPPlat plat = arbre.aplatir();
+
+        Random random = new Random(10);
+        int arretes = 0;
+        for (int essai = 0; essai < 300; essai++) {
+            double x = random.nextDouble() * 200;
+            double y = random.nextDouble() * 200;
+            if (distanceMurs(murs, x, y) < RAYON) continue; // départ dans un mur
+            double dx = random.nextDouble() * 6 - 3;
+            double dy = random.nextDouble() * 6 - 3;
+
+            double t = plat.balayerCercle(x, y, dx, dy, RAYON);
+            assertTrue(t >= 0 && t <= 1);
+            // jusqu'au contact le cercle ne touche aucun mur, juste après il en chevauche un
+            for (double f = 0; f < t - 1e-6; f += Math.max(1e-3, t / 20)) {
+                assertTrue(distanceMurs(murs, x + f * dx, y + f * dy) >= RAYON - 1e-9, "essai " + essai + " à " + f);
+            }
+            if (t < 1) {
+                arretes++;
+                assertEquals(RAYON, distanceMurs(murs, x + t * dx, y + t * dy), 1e-6);
+                assertTrue(distanceMurs(murs, x + (t + 1e-4) * dx, y + (t + 1e-4) * dy) < RAYON);
+            }
+        }
+        assertTrue(arretes > 50, arretes + " déplacements arrêtés : scénario sans intérêt");
+    }
+
+    @Test
+    void testLocalisationDansUneSalleFermee() {
+        ArbreBSP arbre = new ArbreBSP();
+        arbre.construireBSP(new MapMur(new Mur[]{
+                new Mur(0, 0, 10, 0), new Mur(10, 0, 10, 10), new Mur(10, 10, 0, 10), new Mur(0, 10, 0, 0)}));
+        ArbreBSPPlat plat = arbre.aplatir();
+
+        // tout point de la salle est dans la même feuille, distincte de celles de l'extérieur
+        int salle = plat.localiser(5, 5);
+        assertEquals(salle, plat.localiser(0.5, 9.5));
+        assertEquals(salle, plat.localiser(9.9, 0.1));
+        assertNotEquals(salle, plat.localiser(-1, 5));
+        assertNotEquals(salle, plat.localiser(5, 11));
+        assertFalse(plat.ligneDeVue(5, 5, 15, 5));
+        assertEquals(0.5, plat.intersecterSegment(5, 5, 15, 5), 1e-12);
+    }
+
+    private static double intersection(Mur mur, double x0, double y0, double x1, double y1) {
+        double ex = mur.x1 - mur.x0;
+        double ey = mur.y1 - mur.y0;
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double denominateur = dx * ey - dy * ex;
+        if (denominateur == 0) return Double.POSITIVE_INFINITY;
+        double t = ((mur.x0 - x0) * ey - (mur.y0 - y0) * ex) / denominateur;
+        double u = ((mur.x0 - x0) * dy - (mur.y0 - y0) * dx) / denominateur;
+        return t >= 0 && t <= 1 && u >= 0 && u <= 1 ? t : Double.POSITIVE_INFINITY;
+    }
+
+    private static double distanceMurs(Mur[] murs, double x, double y) {
+        double min = Double.POSITIVE_INFINITY;
+        for (Mur mur : murs) {
+            double ex = mur.x1 - mur.x0;
+            double ey = mur.y1 - mur.y0;
+            double u = Math.max(0, Math.min(1, ((x - mur.x0) * ex + (y - mur.y0) * ey) / (ex * ex + ey * ey)));
+            min = Math.min(min, Math.hypot(x - mur.x0 - u * ex, y - mur.y0 - u * ey));
+        }
+        return min;
+    }
+}
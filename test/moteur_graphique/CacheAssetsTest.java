@@ -0,0 +1,79 @@
+package moteur_graphique;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Partage, comptage de références et préchargement du cache d'images
+ */
+public class CacheAssetsTest {
+
+    @Test
+    void testImageLueUneSeuleFoisEtPartagee(@TempDir Path dossier) throws IOException {
+        String chemin = ecrireImage(dossier, "sprite.png");
+        CacheAssets cache = new CacheAssets();
+
+        BufferedImage a = cache.acquerir(chemin);
+        BufferedImage b = cache.acquerir(chemin);
+        assertNotNull(a);
+        assertSame(a, b);
+        assertEquals(1, cache.getLecturesDisque());
+        assertEquals(2, cache.getReferences(chemin));
+
+        // dernière référence rendue : l'image quitte le cache, la suivante relit le fichier
+        cache.liberer(chemin);
+        cache.liberer(chemin);
+        assertEquals(0, cache.getNbImages());
+        cache.acquerir(chemin);
+        assertEquals(2, cache.getLecturesDisque());
+    }
+
+    @Test
+    void testImagePrechargeeResteEnCache(@TempDir Path dossier) throws IOException {
+        String chemin = ecrireImage(dossier, "joueur.png");
+        CacheAssets cache = new CacheAssets();
+
+        BufferedImage prechargee = cache.precharger(chemin).join();
+        assertSame(prechargee, cache.acquerir(chemin));
+        cache.liberer(chemin);
+        assertSame(prechargee, cache.acquerir(chemin));
+        assertEquals(1, cache.getLecturesDisque());
+
+        // fichier absent : échec gardé en cache, pas de nouvelle lecture
+        String absent = dossier.resolve("absent.png").toString();
+        assertThrows(CompletionException.class, () -> cache.precharger(absent).join());
+        assertNull(cache.acquerir(absent));
+        assertEquals(2, cache.getLecturesDisque());
+    }
+
+    @Test
+    void testAcquisitionAsynchronePartageLaMemeImage(@TempDir Path dossier) throws IOException {
+        String chemin = ecrireImage(dossier, "adversaire.png");
+        CacheAssets cache = new CacheAssets();
+
+        BufferedImage chargee = cache.acquerirAsync(chemin).join();
+        assertSame(chargee, cache.acquerir(chemin));
+        assertTrue(cache.acquerirAsync(chemin).isDone(), "image en cache : future déjà complété");
+        assertEquals(1, cache.getLecturesDisque());
+        assertEquals(3, cache.getReferences(chemin));
+
+        String absent = dossier.resolve("absent.png").toString();
+        assertThrows(CompletionException.class, () -> cache.acquerirAsync(absent).join());
+    }
+
+    private static String ecrireImage(Path dossier, String nom) throws IOException {
+        BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(3, 4, 0xFF00FF00);
+        Path fichier = dossier.resolve(nom);
+        ImageIO.write(image, "png", fichier.toFile());
+        return fichier.toString();
+    }
+}
@@ -0,0 +1,153 @@
+package moteur_graphique;
+
+import moteur_graphique.BSP.ArbreBSP;
+import moteur_graphique.BSP.MapMur;
+import moteur_graphique.BSP.Mur;
+import moteur_graphique.BSP.NoeudBSP;
+import moteur_graphique.raycasting.MapBool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Aller-retour du paquet binaire de map
+ */
+public class PaquetMapTest {
+
+    @Test
+    void testPaquetRelitLaMemeMapEtLeMemeArbre(@TempDir Path dossier) {
+        MapBool grille = new MapBool(150, 70);
+        java.util.Random random = new java.util.Random(5);
+        for (int i = 0; i < 800; i++) {
+            grille.setTexture(1 + random.nextInt(148), 1 + random.nextInt(68), 1 + random.nextInt(MapBool.MAX_TEXTURE_ID));
+        }
+        // Murs qui se croisent : le BSP crée des morceaux qui n'existent pas dans la map
+        MapMur mapMur = new MapMur(new Mur[]{
+                new Mur(0, 5, 10, 5, "brique.png"),
+                new Mur(5, 0, 5, 10, "bois.png"),
+                new Mur(2, 1, 8, 9, "brique.png"),
+                new Mur(9, 1, 1, 9),
+        });
+        NoeudBSP racine = new ArbreBSP().construireBSP(mapMur);
+
+        Path fichier = dossier.resolve("map.paquet");
+        PaquetMap.depuisCompile(grille, mapMur, racine).ecrire(fichier);
+        PaquetMap relu = PaquetMap.charger(fichier);
+
+        assertArrayEquals(grille.getBits(), relu.getGrille().getBits());
+        assertArrayEquals(grille.getTexturesCases(), relu.getGrille().getTexturesCases());
+        assertEquals(grille.getWIDTH(), relu.getGrille().getWIDTH());
+        assertEquals(grille.getHeight(), relu.getGrille().getHeight());
+        assertEquals(mapMur.getMurs().length, relu.getMapMur().getMurs().length);
+        assertArbresEgaux(racine, relu.getRacineBSP());
+    }
+
+    /**
+     * Grille texte de 12x8 (bords murés) et paquet compilé depuis elle
+     */
+    private static Path compilerMapTexte(Path dossier, int xPilier) throws IOException {
+        Path texte = dossier.resolve("map.txt");
+        StringBuilder contenu = new StringBuilder();
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 12; x++) {
+                boolean mur = x == 0 || y == 0 || x == 11 || y == 7 || (x == xPilier && y == 4);
+                contenu.append(mur ? '1' : '0');
+            }
+            contenu.append('\n');
+        }
+        Files.writeString(texte, contenu);
+        return texte;
+    }
+
+    @Test
+    void testPaquetAJourUtilise(@TempDir Path dossier) throws IOException {
+        Path texte = compilerMapTexte(dossier, 5);
+        Path paquet = dossier.resolve("map.paquet");
+        PaquetMap.depuisTexte(texte.toString(), null).ecrire(paquet);
+
+        PaquetMap charge = PaquetMap.chargerOuTexte(paquet, texte.toString(), null);
+        assertNotNull(charge.getGrillePaginee(4), "chargé depuis le paquet projeté");
+        assertTrue(charge.getGrille().isWall(5, 4));
+    }
+
+    @Test
+    void testPaquetPerimeIgnore(@TempDir Path dossier) throws IOException {
+        Path texte = compilerMapTexte(dossier, 5);
+        Path paquet = dossier.resolve("map.paquet");
+        PaquetMap.depuisTexte(texte.toString(), null).ecrire(paquet);
+
+        // pilier déplacé après la compilation (même taille de fichier, date différente)
+        compilerMapTexte(dossier, 6);
+        Files.setLastModifiedTime(texte, FileTime.fromMillis(Files.getLastModifiedTime(texte).toMillis() + 2000));
+
+        PaquetMap charge = PaquetMap.chargerOuTexte(paquet, texte.toString(), null);
+        assertNull(charge.getGrillePaginee(4), "paquet périmé : fichiers texte relus");
+        assertFalse(charge.getGrille().isWall(5, 4));
+        assertTrue(charge.getGrille().isWall(6, 4));
+    }
+
+    @Test
+    void testEnTeteCorrompuRetombeSurLeTexte(@TempDir Path dossier) throws IOException {
+        Path texte = compilerMapTexte(dossier, 5);
+        Path paquet = dossier.resolve("map.paquet");
+        PaquetMap.depuisTexte(texte.toString(), null).ecrire(paquet);
+
+        // position des murs hors du fichier, puis section des murs commençant par un nombre démesuré
+        byte[] octets = Files.readAllBytes(paquet);
+        ByteBuffer.wrap(octets).order(ByteOrder.LITTLE_ENDIAN).putInt(12, octets.length + 1000);
+        Files.write(paquet, octets);
+        assertThrows(RuntimeException.class, () -> PaquetMap.charger(paquet));
+        assertCharge(PaquetMap.chargerOuTexte(paquet, texte.toString(), null));
+
+        octets = Files.readAllBytes(paquet);
+        ByteBuffer entete = ByteBuffer.wrap(octets).order(ByteOrder.LITTLE_ENDIAN);
+        entete.putInt(12, entete.getInt(16) - 8);
+        entete.putInt(entete.getInt(16) - 8, Integer.MAX_VALUE);
+        Files.write(paquet, octets);
+        assertThrows(IllegalArgumentException.class, () -> PaquetMap.charger(paquet));
+        assertCharge(PaquetMap.chargerOuTexte(paquet, texte.toString(), null));
+
+        Files.write(paquet, "pas un paquet".getBytes());
+        assertCharge(PaquetMap.chargerOuTexte(paquet, texte.toString(), null));
+    }
+
+    @Test
+    void testPaquetTronqueRetombeSurLeTexte(@TempDir Path dossier) throws IOException {
+        Path texte = compilerMapTexte(dossier, 5);
+        Path paquet = dossier.resolve("map.paquet");
+        PaquetMap.depuisTexte(texte.toString(), null).ecrire(paquet);
+        byte[] octets = Files.readAllBytes(paquet);
+
+        for (int taille : new int[]{octets.length - 1, octets.length / 2, 40, 10}) {
+            Files.write(paquet, Arrays.copyOf(octets, taille));
+            assertThrows(RuntimeException.class, () -> PaquetMap.charger(paquet), taille + " octets");
+            assertCharge(PaquetMap.chargerOuTexte(paquet, texte.toString(), null));
+        }
+    }
+
+    private static void assertCharge(PaquetMap charge) {
+        assertNull(charge.getGrillePaginee(4), "fichiers texte relus");
+        assertTrue(charge.getGrille().isWall(5, 4));
+        assertFalse(charge.getGrille().isWall(6, 4));
+    }
+
+    private void assertArbresEgaux(NoeudBSP attendu, NoeudBSP lu) {
+        if (attendu == null) {
+            assertNull(lu);
+            return;
+        }
+        assertNotNull(lu);
+        assertEquals(attendu.getMurDiviseur().toString(), lu.getMurDiviseur().toString());
+        assertArbresEgaux(attendu.getGauche(), lu.getGauche());
+        assertArbresEgaux(attendu.getDroit(), lu.getDroit());
+    }
+}
@@ -0,0 +1,112 @@
+package moteur_graphique.raycasting;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Textures 8 bits : palette commune, texels colonne par colonne, identifiants sans image
+ */
+public class BanqueTexturesTest {
+
+    private static BufferedImage creerImage(int largeur, int hauteur, int... couleurs) {
+        BufferedImage image = new BufferedImage(largeur, hauteur, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < hauteur; y++) {
+            for (int x = 0; x < largeur; x++) {
+                image.setRGB(x, y, couleurs[(x + y * largeur) % couleurs.length]);
+            }
+        }
+        return image;
+    }
+
+    @Test
+    void testPaletteRestitueLesCouleursExactes() {
+        // couleurs au centre de leur case 15 bits (composantes = 8k + 4) : la moyenne de la case les redonne
+        int[] couleursA = {0xFF040404, 0xFFFC0404, 0xFF04FC04};
+        int[] couleursB = {0xFF0404FC, 0xFF7C7C7C, 0xFFFCFCFC};
+        BufferedImage[] images = new BufferedImage[MapBool.MAX_TEXTURE_ID + 1];
+        images[2] = creerImage(8, 4, couleursA);
+        images[5] = creerImage(4, 16, couleursB);
+        BanqueTextures banque = BanqueTextures.depuisImages(images);
+
+        int[] palette = banque.getPalette();
+        assertEquals(BanqueTextures.TAILLE_PALETTE, palette.length);
+        for (int id : new int[]{2, 5}) {
+            BufferedImage image = images[id];
+            int hauteur = image.getHeight();
+            assertEquals(image.getWidth(), banque.getLargeur(id));
+            assertEquals(hauteur, banque.getHauteur(id));
+            byte[] texels = banque.getTexels(id);
+            assertEquals(image.getWidth() * hauteur, texels.length);
+            for (int x = 0; x < image.getWidth(); x++) {
+                for (int y = 0; y < hauteur; y++) {
+                    // rangement colonne par colonne : texX * hauteur + texY
+                    assertEquals(image.getRGB(x, y), palette[texels[x * hauteur + y] & 0xFF], "texel (" + x + ", " + y + ")");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testPlusDeCouleursQueLaPaletteDonneLaPlusProche() {
+        // 4096 couleurs distinctes pour 256 entrées : chaque texel reçoit l'entrée la plus proche de sa case 15 bits
+        int[] couleurs = new int[4096];
+        for (int i = 0; i < couleurs.length; i++) {
+            couleurs[i] = 0xFF000000 | ((i & 0xF) << 20) | (((i >> 4) & 0xF) << 12) | ((i >> 8) << 4);
+        }
+        BufferedImage[] images = new BufferedImage[MapBool.MAX_TEXTURE_ID + 1];
+        images[1] = creerImage(64, 64, couleurs);
+        BanqueTextures banque = BanqueTextures.depuisImages(images);
+
+        int[] palette = banque.getPalette();
+        for (int entree : palette) {
+            assertEquals(0xFF, entree >>> 24, "palette opaque");
+        }
+        byte[] texels = banque.getTexels(1);
+        for (int x = 0; x < 64; x++) {
+            for (int y = 0; y < 64; y++) {
+                int argb = images[1].getRGB(x, y);
+                // centre de la case de couleur du texel
+                int centre = (argb & 0xF8F8F8) | 0x040404;
+                int distanceMin = Integer.MAX_VALUE;
+                for (int entree : palette) {
+                    distanceMin = Math.min(distanceMin, distance(entree, centre));
+                }
+                assertEquals(distanceMin, distance(palette[texels[x * 64 + y] & 0xFF], centre), "texel (" + x + ", " + y + ")");
+            }
+        }
+    }
+
+    private static int distance(int a, int b) {
+        int dr = ((a >> 16) & 0xFF) - ((b >> 16) & 0xFF);
+        int dg = ((a >> 8) & 0xFF) - ((b >> 8) & 0xFF);
+        int db = (a & 0xFF) - (b & 0xFF);
+        return dr * dr + dg * dg + db * db;
+    }
+
+    @Test
+    void testIdentifiantSansImageEtMipmaps() {
+        BufferedImage[] images = new BufferedImage[MapBool.MAX_TEXTURE_ID + 1];
+        images[3] = creerImage(16, 8, 0xFF0C0C0C, 0xFFF4F4F4);
+        images[7] = creerImage(32, 32, 0xFF844404);
+        BanqueTextures banque = BanqueTextures.depuisImages(images);
+
+        // pas de texture 1 : les identifiants sans image reprennent la première texture fournie
+        assertSame(banque.getTexels(3), banque.getTexels(1));
+        assertSame(banque.getTexels(3), banque.getTexels(MapBool.MAX_TEXTURE_ID));
+        assertEquals(16, banque.getLargeur(1));
+        assertEquals(8, banque.getHauteur(1));
+
+        // 16x8 -> 8x4 -> 4x2 -> 2x1 -> 1x1, niveaux bornés au dernier
+        assertEquals(5, banque.getNbMips(3));
+        assertEquals(8 * 4, banque.getTexels(3, 1).length);
+        assertEquals(1, banque.getTexels(3, 4).length);
+        assertSame(banque.getTexels(3, 4), banque.getTexels(3, 10));
+        assertEquals(0xFF844404, banque.getPalette()[banque.getTexels(7, 3)[0] & 0xFF], "mipmap d'un aplat : même couleur");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> BanqueTextures.depuisImages(new BufferedImage[MapBool.MAX_TEXTURE_ID + 1]));
+    }
+}
@@ -0,0 +1,91 @@
+package moteur_graphique.raycasting;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tables d'ombrage : niveau par tranche de distance et couleurs ombrées
+ */
+public class EclairageTest {
+
+    @Test
+    void testNiveauParTrancheDeDistance() {
+        Eclairage eclairage = new Eclairage(Color.BLACK, 31.0); // un niveau par case
+        assertEquals(0, eclairage.getNiveau(0.0));
+        assertEquals(0, eclairage.getNiveau(0.99));
+        assertEquals(1, eclairage.getNiveau(1.0));
+        assertEquals(15, eclairage.getNiveau(15.5));
+        assertEquals(Eclairage.NIVEAUX - 1, eclairage.getNiveau(31.0));
+        assertEquals(Eclairage.NIVEAUX - 1, eclairage.getNiveau(1000.0), "au-delà du brouillard : dernier niveau");
+
+        int precedent = 0;
+        for (double distance = 0; distance < 40; distance += 0.1) {
+            int niveau = eclairage.getNiveau(distance);
+            assertTrue(niveau >= precedent, "niveau décroissant à " + distance);
+            precedent = niveau;
+        }
+        assertThrows(IllegalArgumentException.class, () -> new Eclairage(Color.BLACK, 0));
+    }
+
+    @Test
+    void testOmbrageEntreCouleurEtBrouillard() {
+        Color brouillard = new Color(40, 80, 120);
+        Eclairage eclairage = new Eclairage(brouillard, 20.0);
+        int couleur = 0x80C86432; // alpha 0x80, (200, 100, 50)
+
+        assertEquals(couleur, eclairage.ombrer(couleur, 0), "niveau 0 : couleur intacte");
+        assertEquals(0x80000000 | (brouillard.getRGB() & 0xFFFFFF), eclairage.ombrer(couleur, Eclairage.NIVEAUX - 1),
+                "dernier niveau : couleur du brouillard");
+
+        // chaque canal glisse vers celui du brouillard sans jamais le dépasser ni déborder sur son voisin
+        for (int niveau = 1; niveau < Eclairage.NIVEAUX; niveau++) {
+            int avant = eclairage.ombrer(couleur, niveau - 1);
+            int ombre = eclairage.ombrer(couleur, niveau);
+            assertEquals(0x80, ombre >>> 24, "alpha conservé");
+            assertCanalEntre(200, 40, (avant >> 16) & 0xFF, (ombre >> 16) & 0xFF);
+            assertCanalEntre(100, 80, (avant >> 8) & 0xFF, (ombre >> 8) & 0xFF);
+            assertCanalEntre(50, 120, avant & 0xFF, ombre & 0xFF);
+        }
+
+        // blanc sur brouillard blanc : les arrondis peuvent perdre une unité, jamais déborder sur le canal voisin
+        Eclairage blanc = new Eclairage(Color.WHITE, 10.0);
+        for (int niveau = 0; niveau < Eclairage.NIVEAUX; niveau++) {
+            int ombre = blanc.ombrer(0xFFFFFFFF, niveau);
+            assertEquals(0xFF, ombre >>> 24);
+            for (int decalage = 0; decalage <= 16; decalage += 8) {
+                assertTrue(((ombre >> decalage) & 0xFF) >= 0xFE, Integer.toHexString(ombre) + " au niveau " + niveau);
+            }
+        }
+    }
+
+    /**
+     * Canal d'un niveau à l'autre : se rapproche du brouillard (monotone) en restant entre couleur et brouillard
+     */
+    private static void assertCanalEntre(int couleur, int brouillard, int avant, int apres) {
+        int min = Math.min(couleur, brouillard);
+        int max = Math.max(couleur, brouillard);
+        assertTrue(apres >= min - 1 && apres <= max + 1, apres + " hors de [" + min + ", " + max + "]");
+        if (brouillard < couleur) {
+            assertTrue(apres <= avant, "le canal doit descendre vers le brouillard");
+        } else {
+            assertTrue(apres >= avant, "le canal doit monter vers le brouillard");
+        }
+    }
+
+    @Test
+    void testTextureOmbreeIdentiqueAuxTexelsOmbres() {
+        Eclairage eclairage = new Eclairage(Color.DARK_GRAY, 12.0);
+        int[] couleurs = {0xFF000000, 0xFFFFFFFF, 0xFF123456, 0x00ABCDEF, 0xFF7F7F7F};
+        int[][] niveaux = eclairage.ombrerTexture(couleurs);
+
+        assertEquals(Eclairage.NIVEAUX, niveaux.length);
+        for (int niveau = 0; niveau < Eclairage.NIVEAUX; niveau++) {
+            for (int i = 0; i < couleurs.length; i++) {
+                assertEquals(eclairage.ombrer(couleurs[i], niveau), niveaux[niveau][i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package moteur_graphique.raycasting;
+
+import entite.Joueur;
+import moteur_graphique.BSP.MapMur;
+import moteur_graphique.BSP.Mur;
+import moteur_graphique.PaquetMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Map paginée : mêmes murs que la MapBool d'origine, ensemble résident borné, lecture seule
+ */
+public class MapBoolPagineeTest {
+
+    /**
+     * Map de plusieurs tuiles dans chaque direction, dimensions non multiples de 64
+     */
+    private static MapBool creerMap(long graine) {
+        MapBool map = new MapBool(300, 200);
+        Random random = new Random(graine);
+        for (int i = 0; i < 6000; i++) {
+            map.setWall(1 + random.nextInt(298), 1 + random.nextInt(198), true);
+        }
+        return map;
+    }
+
+    private static void assertMemesMurs(MapBool attendu, MapBool paginee) {
+        assertEquals(attendu.getWIDTH(), paginee.getWIDTH());
+        assertEquals(attendu.getHeight(), paginee.getHeight());
+        for (int y = -1; y <= attendu.getHeight(); y++) {
+            for (int x = -1; x <= attendu.getWIDTH(); x++) {
+                assertEquals(attendu.isWall(x, y), paginee.isWall(x, y), "case (" + x + ", " + y + ")");
+            }
+        }
+    }
+
+    @Test
+    void testIsWallIdentiqueAMapBool(@TempDir Path dossier) {
+        MapBool map = creerMap(1);
+        Path fichier = dossier.resolve("map.tuiles");
+        MapBoolPaginee.ecrire(map, fichier);
+
+        assertMemesMurs(map, MapBoolPaginee.ouvrir(fichier, 2));
+    }
+
+    @Test
+    void testAllerRetourPaquetEnGrillePaginee(@TempDir Path dossier) {
+        MapBool map = creerMap(2);
+        Path fichier = dossier.resolve("map.paquet");
+        PaquetMap.depuisCompile(map, new MapMur(new Mur[0]), null).ecrire(fichier);
+
+        MapBoolPaginee paginee = PaquetMap.charger(fichier).getGrillePaginee(3);
+        assertNotNull(paginee);
+        assertMemesMurs(map, paginee);
+    }
+
+    @Test
+    void testEnsembleResidentNeDepassePasLaLimite(@TempDir Path dossier) {
+        MapBool map = creerMap(3);
+        Path fichier = dossier.resolve("map.tuiles");
+        MapBoolPaginee.ecrire(map, fichier);
+        MapBoolPaginee paginee = MapBoolPaginee.ouvrir(fichier, 3);
+
+        Random random = new Random(4);
+        for (int i = 0; i < 5000; i++) {
+            paginee.isWall(random.nextInt(300), random.nextInt(200));
+            assertTrue(paginee.getNbTuilesResidentes() <= 3, paginee.getNbTuilesResidentes() + " tuiles résidentes");
+        }
+        assertEquals(3, paginee.getNbTuilesResidentes());
+        // 20 tuiles pour 3 places : les tuiles évincées ont été rechargées
+        assertTrue(paginee.getNbChargements() > 20, paginee.getNbChargements() + " chargements");
+    }
+
+    @Test
+    void testLecturesConcurrentesPendantLesEvictions(@TempDir Path dossier) throws InterruptedException {
+        MapBool map = creerMap(5);
+        Path fichier = dossier.resolve("map.tuiles");
+        MapBoolPaginee.ecrire(map, fichier);
+        MapBoolPaginee paginee = MapBoolPaginee.ouvrir(fichier, 2); // évictions permanentes
+
+        AtomicInteger erreurs = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            Random random = new Random(10 + t);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 200_000; i++) {
+                    int x = random.nextInt(300);
+                    int y = random.nextInt(200);
+                    if (paginee.isWall(x, y) != map.isWall(x, y)) erreurs.incrementAndGet();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, erreurs.get(), "murs lus de travers pendant les évictions");
+    }
+
+    @Test
+    void testMapEnLectureSeule(@TempDir Path dossier) {
+        Path fichier = dossier.resolve("map.tuiles");
+        MapBoolPaginee.ecrire(new MapBool(), fichier);
+        MapBoolPaginee paginee = MapBoolPaginee.ouvrir(fichier);
+
+        assertThrows(UnsupportedOperationException.class, () -> paginee.setWall(3, 3, true));
+        assertThrows(UnsupportedOperationException.class, () -> paginee.setTexture(3, 3, 2));
+        assertNull(paginee.getDistancesMurs());
+        Raycasting raycasting = new Raycasting(paginee, new Joueur(2.0, 2.0, 0.0));
+        assertThrows(UnsupportedOperationException.class, () -> raycasting.setSautEspaceVide(true));
+        assertFalse(raycasting.isSautEspaceVide());
+    }
+}
@@ -0,0 +1,68 @@
+package moteur_graphique.raycasting;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Champ de distance tenu à jour par setWall : identique à celui recalculé sur toute la map
+ */
+public class MapBoolTest {
+
+    private static byte[] distancesRecalculees(MapBool map) {
+        MapBool copie = new MapBool(map.getWIDTH(), map.getHeight());
+        for (int y = 0; y < map.getHeight(); y++) {
+            for (int x = 0; x < map.getWIDTH(); x++) {
+                copie.setWall(x, y, map.isWall(x, y)); // la map neuve a des murs sur ses bords
+            }
+        }
+        return copie.getDistancesMurs();
+    }
+
+    @Test
+    void testMiseAJourLocaleDuChampDeDistance() {
+        // plus grande que la fenêtre de mise à jour, avec de grandes zones vides (distances saturées)
+        MapBool map = new MapBool(300, 180);
+        Random random = new Random(7);
+        for (int i = 0; i < 150; i++) {
+            map.setWall(random.nextInt(300), random.nextInt(180), true);
+        }
+        byte[] distances = map.getDistancesMurs();
+
+        for (int i = 0; i < 400; i++) {
+            int x = random.nextInt(300);
+            int y = random.nextInt(180);
+            if (i % 3 == 0) {
+                map.setWall(x, y, true);
+            } else {
+                // retraits surtout parmi les murs existants
+                for (int essai = 0; essai < 50 && !map.isWall(x, y); essai++) {
+                    x = random.nextInt(300);
+                    y = random.nextInt(180);
+                }
+                map.setWall(x, y, false);
+            }
+            if (i % 40 == 0) {
+                assertArrayEquals(distancesRecalculees(map), map.getDistancesMurs(), "après " + (i + 1) + " modifications");
+            }
+        }
+        assertArrayEquals(distancesRecalculees(map), map.getDistancesMurs());
+        assertSame(distances, map.getDistancesMurs(), "champ mis à jour sur place, sans copie");
+    }
+
+    @Test
+    void testRetraitDuDernierMurRendLaDistanceAuxBords() {
+        MapBool map = new MapBool(200, 200);
+        map.setWall(100, 100, true);
+        byte[] distances = map.getDistancesMurs();
+        assertEquals(0, distances[100 * 200 + 100]);
+        assertEquals(5, distances[100 * 200 + 105]);
+
+        map.setWall(100, 100, false);
+        assertEquals(MapBool.DISTANCE_MAX, distances[100 * 200 + 100]);
+        assertEquals(2, distances[100 * 200 + 2], "mur du bord gauche");
+        assertArrayEquals(distancesRecalculees(map), distances);
+    }
+}
@@ -0,0 +1,57 @@
+package moteur_graphique.raycasting;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chaînes de mipmaps et choix du niveau selon la taille à l'écran
+ */
+public class MipmapsTest {
+
+    @Test
+    void testChoixDuNiveauGardeAuMoinsUnTexelParPixel() {
+        int nbNiveaux = Mipmaps.nbNiveaux(64, 64);
+        assertEquals(7, nbNiveaux); // 64, 32, 16, 8, 4, 2, 1
+
+        assertEquals(0, Mipmaps.choisirNiveau(64, 600, nbNiveaux), "mur proche : pleine texture");
+        assertEquals(0, Mipmaps.choisirNiveau(64, 64, nbNiveaux));
+        assertEquals(0, Mipmaps.choisirNiveau(64, 33, nbNiveaux), "moins de 2 texels par pixel");
+        assertEquals(1, Mipmaps.choisirNiveau(64, 32, nbNiveaux));
+        assertEquals(1, Mipmaps.choisirNiveau(64, 17, nbNiveaux));
+        assertEquals(2, Mipmaps.choisirNiveau(64, 16, nbNiveaux));
+        assertEquals(4, Mipmaps.choisirNiveau(64, 4, nbNiveaux));
+        assertEquals(6, Mipmaps.choisirNiveau(64, 1, nbNiveaux));
+        assertEquals(6, Mipmaps.choisirNiveau(64, 0, nbNiveaux), "hauteur nulle : dernier niveau");
+        assertEquals(3, Mipmaps.choisirNiveau(1024, 1, 4), "borné au dernier niveau disponible");
+
+        // le niveau choisi garde toujours au moins un texel par pixel, et le suivant n'en garderait plus
+        for (int tailleEcran = 1; tailleEcran <= 200; tailleEcran++) {
+            int niveau = Mipmaps.choisirNiveau(256, tailleEcran, Mipmaps.nbNiveaux(256, 256));
+            assertTrue(Mipmaps.taille(256, niveau) >= tailleEcran || niveau == 0, "taille " + tailleEcran);
+            assertTrue(Mipmaps.taille(256, niveau + 1) < 2 * tailleEcran || niveau == 8, "taille " + tailleEcran);
+        }
+    }
+
+    @Test
+    void testChaineMoyenneLesBlocsDe2x2() {
+        // 4x2 colonne par colonne (x * hauteur + y)
+        int[] texels = {
+                0xFF000000, 0xFF080808, // x = 0
+                0xFF101010, 0xFF181818, // x = 1
+                0xFFFF0000, 0xFFFF0000, // x = 2
+                0x00000000, 0xFF0000FF, // x = 3 (un texel transparent)
+        };
+        int[][] chaine = Mipmaps.construireChaine(texels, 4, 2);
+
+        assertEquals(3, chaine.length); // 4x2, 2x1, 1x1
+        assertSame(texels, chaine[0]);
+        assertEquals(2, chaine[1].length);
+        assertEquals(0xFF0C0C0C, chaine[1][0]);
+        // le texel transparent ne fonce pas ses voisins : couleur moyenne des opaques, alpha moyen
+        assertEquals(0xBFAA0055, chaine[1][1]);
+        assertEquals(1, chaine[2].length);
+        assertEquals(1, Mipmaps.taille(2, 5));
+        assertEquals(16, Mipmaps.taille(64, 2));
+    }
+}
@@ -0,0 +1,396 @@
+package moteur_graphique.raycasting;
+
+import entite.Joueur;
+import entite.Sprite;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests du moteur de raycasting (rendu headless dans un framebuffer int[])
+ */
+public class RaycastingTest {
+
+    private static final int LARGEUR = 640;
+    private static final int HAUTEUR = 360;
+
+    private int[] rendreImage(Raycasting raycasting, Joueur camera) {
+        int[] framebuffer = new int[LARGEUR * HAUTEUR];
+        raycasting.renderFrame(framebuffer, LARGEUR, HAUTEUR, camera.getX(), camera.getY(), camera.getAngle());
+        return framebuffer;
+    }
+
+    @Test
+    void testRenduHeadlessIdentiqueAuRenduJava2D() {
+        Joueur joueur = new Joueur(5.5, 3.2, 1.3);
+        Raycasting raycasting = new Raycasting(new MapBool(), joueur);
+
+        BufferedImage image = new BufferedImage(LARGEUR, HAUTEUR, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        raycasting.render(g, LARGEUR, HAUTEUR);
+        g.dispose();
+
+        assertArrayEquals(image.getRGB(0, 0, LARGEUR, HAUTEUR, null, 0, LARGEUR), rendreImage(raycasting, joueur),
+                "renderFrame doit produire l'image présentée par render(Graphics)");
+    }
+
+    @Test
+    void testRenduParalleleIdentiqueAuRenduSequentiel() {
+        MapBool map = new MapBool();
+        double[][] positions = {{2.0, 2.0, 0.0}, {5.5, 3.2, 1.3}, {8.1, 8.4, -2.7}};
+
+        for (double[] p : positions) {
+            Joueur camera = new Joueur(p[0], p[1], p[2]);
+            Raycasting sequentiel = new Raycasting(map, camera);
+            Raycasting parallele = new Raycasting(map, camera);
+            parallele.setRenduParallele(true);
+
+            assertArrayEquals(rendreImage(sequentiel, camera), rendreImage(parallele, camera),
+                    "Le rendu parallèle doit être identique pixel pour pixel");
+        }
+    }
+
+    /**
+     * Octets alloués par le thread appelant sur 100 frames, après 200 frames de chauffe (buffers, JIT)
+     */
+    private static long octetsAllouesParRendu(Raycasting raycasting, Joueur joueur) {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported(), "Mesure d'allocation non supportée par la JVM");
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        // Rendu headless : le blit Java2D alloue de lui-même et n'est pas mesuré.
+        int[] framebuffer = new int[LARGEUR * HAUTEUR];
+        for (int i = 0; i < 200; i++) {
+            raycasting.renderFrame(framebuffer, LARGEUR, HAUTEUR, joueur.getX(), joueur.getY(), joueur.getAngle());
+        }
+
+        long avant = threadBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100; i++) {
+            raycasting.renderFrame(framebuffer, LARGEUR, HAUTEUR, joueur.getX(), joueur.getY(), 0.3 + i * 0.001);
+        }
+        return threadBean.getCurrentThreadAllocatedBytes() - avant;
+    }
+
+    /**
+     * Plus petite allocation sur quelques séries de frames : une désoptimisation du JIT ou une file du pool
+     * commun déplacée alloue une fois, une allocation par frame se retrouverait dans chaque série
+     */
+    private static long octetsAllouesAChaqueSerie(Raycasting raycasting, Joueur joueur) {
+        long minimum = Long.MAX_VALUE;
+        for (int serie = 0; serie < 3 && minimum > 0; serie++) {
+            minimum = Math.min(minimum, octetsAllouesParRendu(raycasting, joueur));
+        }
+        return minimum;
+    }
+
+    @Test
+    void testAucuneAllocationParFrameApresChauffe() {
+        Joueur joueur = new Joueur(2.0, 2.0, 0.3);
+        Raycasting raycasting = new Raycasting(new MapBool(), joueur);
+        raycasting.addSprite(new Sprite(5.0, 3.0));
+        raycasting.addSprite(new Sprite(4.0, 2.5));
+        raycasting.addSprite(new Sprite(1.2, 1.5));
+
+        assertEquals(0, octetsAllouesParRendu(raycasting, joueur),
+                "Le rendu ne doit plus allouer une fois chauffé (octets alloués sur 100 frames)");
+    }
+
+    @Test
+    void testAucuneAllocationParFrameReglagesDuJeu() {
+        MapBool map = new MapBool();
+        map.setTexture(0, 0, 2);
+        map.setTexture(0, 1, 3);
+        BufferedImage[] images = new BufferedImage[4];
+        for (int id = 1; id < images.length; id++) {
+            images[id] = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+            for (int x = 0; x < 64; x++) {
+                for (int y = 0; y < 64; y++) {
+                    images[id].setRGB(x, y, id * 0x402010 + x * 0x030000 + y * 0x000301);
+                }
+            }
+        }
+
+        Joueur joueur = new Joueur(2.0, 2.0, 0.3);
+        Raycasting raycasting = new Raycasting(map, joueur);
+        raycasting.addSprite(new Sprite(5.0, 3.0));
+        raycasting.addSprite(new Sprite(4.0, 2.5));
+        raycasting.addSprite(new Sprite(1.2, 1.5));
+        // mêmes réglages que MainGameMultiplayer.terminerChargementMap
+        raycasting.setRenduParallele(true);
+        raycasting.setProjectionPlanCamera(true);
+        raycasting.setResolutionDynamique(true);
+        raycasting.setTempsFrameCible(1000.0 / 60);
+        raycasting.setMipmaps(true);
+        raycasting.setEclairage(new Eclairage(java.awt.Color.BLACK, 20.0));
+        raycasting.setTexturesMurs(BanqueTextures.depuisImages(images));
+
+        assertEquals(0, octetsAllouesAChaqueSerie(raycasting, joueur), "réglages du jeu");
+
+        // mode disponible mais désactivé dans le jeu
+        raycasting.setPanorama(true);
+        assertEquals(0, octetsAllouesAChaqueSerie(raycasting, joueur), "panorama");
+    }
+
+    @Test
+    void testSautEspaceVideToucheLesMemesMurs() {
+        // Grande arène presque vide avec quelques piliers
+        MapBool map = new MapBool(200, 200);
+        java.util.Random random = new java.util.Random(3);
+        for (int i = 0; i < 300; i++) {
+            map.setWall(1 + random.nextInt(198), 1 + random.nextInt(198), true);
+        }
+
+        Raycasting pasAPas = new Raycasting(map, new Joueur(0, 0, 0));
+        Raycasting avecSaut = new Raycasting(map, new Joueur(0, 0, 0));
+        avecSaut.setSautEspaceVide(true);
+        for (int i = 0; i < 20; i++) {
+            double x = 1 + random.nextDouble() * 198;
+            double y = 1 + random.nextDouble() * 198;
+            if (map.isWall((int) x, (int) y)) continue;
+            Joueur camera = new Joueur(x, y, random.nextDouble() * 2 * Math.PI);
+            assertArrayEquals(rendreImage(pasAPas, camera), rendreImage(avecSaut, camera),
+                    "Le saut des zones vides doit donner exactement la même image");
+
+            // Modification de la map : le champ de distance est mis à jour localement
+            map.setWall(1 + random.nextInt(198), 1 + random.nextInt(198), random.nextBoolean());
+        }
+    }
+
+    @Test
+    void testPanoramaServiEnRotationEtInvalideParDeplacementOuMap() {
+        MapBool map = new MapBool(12, 12);
+        map.setWall(6, 3, true);
+        map.setWall(3, 8, true);
+        Joueur camera = new Joueur(5.5, 5.5, 0.0);
+        Raycasting reference = new Raycasting(map, camera);
+        Raycasting panorama = new Raycasting(map, camera);
+        panorama.setPanorama(true);
+
+        // rotation sur place : après le premier tour, les rayons viennent du panorama
+        for (int i = 0; i < 2 * 60; i++) {
+            rendreImage(panorama, new Joueur(5.5, 5.5, i * Math.PI / 30));
+        }
+        assertTrue(panorama.getTauxPanorama() > 0.4, "taux de panorama: " + panorama.getTauxPanorama());
+
+        // image quasi identique au rendu sans panorama (écarts d'un pixel au bord des murs)
+        Joueur vue = new Joueur(5.5, 5.5, 0.77);
+        int differences = compterDifferences(rendreImage(reference, vue), rendreImage(panorama, vue));
+        assertTrue(differences < LARGEUR * HAUTEUR / 100, differences + " pixels différents");
+
+        // déplacement puis modification de la map : plus aucun rayon servi tant que rien n'est recalculé
+        panorama.resetStatistiquesPanorama();
+        rendreImage(panorama, new Joueur(5.6, 5.5, 0.77));
+        assertEquals(0, panorama.getRayonsPanoramaServis());
+        map.setWall(7, 6, true);
+        int[] apresMur = rendreImage(panorama, new Joueur(5.6, 5.5, 0.77));
+        assertEquals(0, panorama.getRayonsPanoramaServis());
+        differences = compterDifferences(rendreImage(reference, new Joueur(5.6, 5.5, 0.77)), apresMur);
+        assertTrue(differences < LARGEUR * HAUTEUR / 100, "le nouveau mur doit être vu : " + differences + " pixels différents");
+
+        // remplissage par les tâches parallèles en plan caméra : même image que le panorama séquentiel
+        Raycasting sequentiel = new Raycasting(map, camera);
+        Raycasting parallele = new Raycasting(map, camera);
+        for (Raycasting r : new Raycasting[]{sequentiel, parallele}) {
+            r.setPanorama(true);
+            r.setProjectionPlanCamera(true);
+        }
+        parallele.setRenduParallele(true);
+        for (int i = 0; i < 30; i++) {
+            Joueur rotation = new Joueur(5.6, 5.5, i * 0.21);
+            assertArrayEquals(rendreImage(sequentiel, rotation), rendreImage(parallele, rotation));
+        }
+        assertEquals(sequentiel.getRayonsPanoramaServis(), parallele.getRayonsPanoramaServis());
+    }
+
+    @Test
+    void testFrameAJourTantQueLaSceneNeChangePas() {
+        MapBool map = new MapBool(12, 12);
+        Joueur camera = new Joueur(5.5, 5.5, 0.4);
+        Raycasting raycasting = new Raycasting(map, camera);
+        Sprite sprite = new Sprite(8.5, 7.5);
+        raycasting.addSprite(sprite);
+
+        assertFalse(raycasting.isFrameAJour(LARGEUR, HAUTEUR, 5.5, 5.5, 0.4), "aucune frame rendue");
+        rendreImage(raycasting, camera);
+        assertTrue(raycasting.isFrameAJour(LARGEUR, HAUTEUR, 5.5, 5.5, 0.4));
+        assertFalse(raycasting.isFrameAJour(LARGEUR, HAUTEUR, 5.5, 5.5, 0.41), "caméra tournée");
+        assertFalse(raycasting.isFrameAJour(LARGEUR + 1, HAUTEUR, 5.5, 5.5, 0.4), "taille changée");
+
+        sprite.setX(8.5); // même position : pas de changement
+        assertTrue(raycasting.isFrameAJour(LARGEUR, HAUTEUR, 5.5, 5.5, 0.4));
+        sprite.setX(8.6);
+        assertFalse(raycasting.isFrameAJour(LARGEUR, HAUTEUR, 5.5, 5.5, 0.4), "sprite déplacé");
+
+        rendreImage(raycasting, camera);
+        map.setWall(9, 9, true);
+        assertFalse(raycasting.isFrameAJour(LARGEUR, HAUTEUR, 5.5, 5.5, 0.4), "map modifiée");
+
+        rendreImage(raycasting, camera);
+        raycasting.removeSprite(sprite);
+        assertFalse(raycasting.isFrameAJour(LARGEUR, HAUTEUR, 5.5, 5.5, 0.4), "sprite retiré");
+
+        rendreImage(raycasting, camera);
+        raycasting.setEclairage(new Eclairage(java.awt.Color.BLACK, 10));
+        assertFalse(raycasting.isFrameAJour(LARGEUR, HAUTEUR, 5.5, 5.5, 0.4), "réglage du rendu modifié");
+
+        // plusieurs rendus de suite : les sprites mémorisés restent ceux de la dernière frame
+        raycasting.addSprite(sprite);
+        rendreImage(raycasting, camera);
+        rendreImage(raycasting, camera);
+        assertTrue(raycasting.isFrameAJour(LARGEUR, HAUTEUR, 5.5, 5.5, 0.4));
+        sprite.setY(7.6);
+        assertFalse(raycasting.isFrameAJour(LARGEUR, HAUTEUR, 5.5, 5.5, 0.4), "sprite déplacé après deux rendus");
+
+        int version = camera.getVersion();
+        camera.rotateRadians(0);
+        camera.rotateDegrees(0);
+        assertEquals(version, camera.getVersion(), "rotation nulle");
+        camera.rotateDegrees(1);
+        assertNotEquals(version, camera.getVersion());
+    }
+
+    @Test
+    void testEchelleDynamiqueSuitLeTempsDeFrame() {
+        Raycasting raycasting = new Raycasting(new MapBool(), new Joueur(2.0, 2.0, 0.0));
+        raycasting.setResolutionDynamique(true);
+        raycasting.setTempsFrameCible(10.0);
+        assertEquals(1.0, raycasting.getEchelleResolution());
+
+        // frames trop lentes : l'échelle baisse par paliers jusqu'au minimum, jamais en dessous
+        double precedente = raycasting.getEchelleResolution();
+        for (int i = 0; i < 500; i++) {
+            raycasting.ajusterEchelle(30_000_000L);
+            double echelle = raycasting.getEchelleResolution();
+            assertTrue(echelle <= precedente, "l'échelle ne doit pas remonter");
+            assertTrue(echelle >= 0.25, "échelle sous le minimum: " + echelle);
+            precedente = echelle;
+        }
+        assertEquals(0.25, raycasting.getEchelleResolution(), 1e-9);
+        assertEquals(30.0, raycasting.getTempsFrameMoyen(), 1e-6);
+
+        // dans la bande [0.75 cible, cible] : l'échelle ne bouge plus
+        for (int i = 0; i < 200; i++) {
+            raycasting.ajusterEchelle(9_000_000L);
+        }
+        double stable = raycasting.getEchelleResolution();
+        for (int i = 0; i < 200; i++) {
+            raycasting.ajusterEchelle(9_000_000L);
+            assertEquals(stable, raycasting.getEchelleResolution());
+        }
+
+        // frames rapides : remontée jusqu'à la pleine résolution, jamais au-delà
+        precedente = stable;
+        for (int i = 0; i < 500; i++) {
+            raycasting.ajusterEchelle(2_000_000L);
+            double echelle = raycasting.getEchelleResolution();
+            assertTrue(echelle >= precedente, "l'échelle ne doit pas redescendre");
+            assertTrue(echelle <= 1.0, "échelle au-dessus de 1: " + echelle);
+            precedente = echelle;
+        }
+        assertEquals(1.0, raycasting.getEchelleResolution());
+
+        for (int i = 0; i < 100; i++) {
+            raycasting.ajusterEchelle(30_000_000L);
+        }
+        assertTrue(raycasting.getEchelleResolution() < 1.0);
+        raycasting.setResolutionDynamique(false);
+        assertEquals(1.0, raycasting.getEchelleResolution(), "désactivée : pleine résolution");
+    }
+
+    @Test
+    void testTablesPlanCameraEtDistancesPerpendiculaires() {
+        final int largeur = 1000; // un rayon par colonne
+        final int hauteur = 600;
+        final int rouge = 0xFFFF0000;
+        MapBool map = new MapBool(60, 60);
+        for (int y = 1; y < 59; y++) {
+            map.setWall(50, y, true);
+        }
+        BufferedImage texture = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+        for (int i = 0; i < 64; i++) {
+            texture.setRGB(i % 8, i / 8, rouge);
+        }
+        Raycasting raycasting = new Raycasting(map, new Joueur(0, 0, 0));
+        raycasting.setWallTexture(texture);
+        raycasting.setProjectionPlanCamera(true);
+        double demiFov = Math.toRadians(raycasting.getFov()) / 2;
+
+        int[] image = new int[largeur * hauteur];
+        for (double angleCamera : new double[]{0.0, 0.25, -0.2}) {
+            double camX = 44.0;
+            raycasting.renderFrame(image, largeur, hauteur, camX, 30.5, angleCamera);
+
+            double[] angles = raycasting.getAnglesCamera();
+            assertEquals(largeur, angles.length);
+            for (int x = 0; x < largeur; x++) {
+                // angle de la colonne d'une caméra à sténopé, calculé directement
+                double angle = Math.atan((2.0 * x / largeur - 1) * Math.tan(demiFov));
+                assertEquals(angle, angles[x], 1e-12, "angle du rayon " + x);
+
+                // mur x = 50 : distance euclidienne le long du rayon, projetée sur la direction de la caméra
+                double perpendiculaire = (50 - camX) / Math.cos(angleCamera + angle) * Math.cos(angle);
+                int hauteurMur = (int) (hauteur / perpendiculaire);
+                int attendus = Math.min(hauteur - 1, hauteur / 2 + hauteurMur / 2)
+                        - Math.max(0, hauteur / 2 - hauteurMur / 2) + 1;
+                int pixelsMur = 0;
+                for (int y = 0; y < hauteur; y++) {
+                    if (image[y * largeur + x] == rouge) pixelsMur++;
+                }
+                assertEquals(attendus, pixelsMur, 2, "hauteur du mur, colonne " + x + ", angle " + angleCamera);
+            }
+        }
+    }
+
+    @Test
+    void testPasFixeLitLesMemesLignesQueLeCalculFlottant() {
+        // colonnes de toutes hauteurs, jusqu'à des murs collés à la caméra (très hautes, coupées par l'écran)
+        int[] hauteursColonne = {1, 2, 3, 7, 63, 64, 65, 100, 359, 360, 1080, 4097, 20000, 65536};
+        for (int hauteurTexture : new int[]{1, 2, 64, 256, 1024}) {
+            for (int hauteurColonne : hauteursColonne) {
+                long pas = Raycasting.pasTexture(hauteurTexture, hauteurColonne);
+                long pos = 0;
+                for (int k = 0; k < hauteurColonne; k++) {
+                    int attendu = (int) ((double) k * hauteurTexture / hauteurColonne);
+                    assertEquals(attendu, (int) (pos >>> 32),
+                            "pixel " + k + " d'une colonne de " + hauteurColonne + " pour " + hauteurTexture + " lignes");
+                    pos += pas;
+                }
+            }
+        }
+
+        // Rendu complet : chaque texel code sa ligne, le pas fixe et le calcul flottant donnent la même image
+        BufferedImage texture = new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 64; y++) {
+            for (int x = 0; x < 64; x++) {
+                texture.setRGB(x, y, 0xFF000000 | (y << 10) | (x << 2));
+            }
+        }
+        MapBool map = new MapBool(40, 40);
+        Raycasting pasFixe = new Raycasting(map, new Joueur(0, 0, 0));
+        Raycasting flottant = new Raycasting(map, new Joueur(0, 0, 0));
+        pasFixe.setWallTexture(texture);
+        flottant.setWallTexture(texture);
+        flottant.setTexturePasFixe(false);
+        for (double distance : new double[]{0.05, 0.3, 1.0, 3.3, 15.2}) {
+            for (double angle : new double[]{0.0, 0.3, -0.7}) {
+                Joueur camera = new Joueur(38.0 - distance, 20.3, angle);
+                assertArrayEquals(rendreImage(flottant, camera), rendreImage(pasFixe, camera),
+                        "mur à " + distance + " cases, angle " + angle);
+            }
+        }
+    }
+
+    private static int compterDifferences(int[] a, int[] b) {
+        int differences = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) differences++;
+        }
+        return differences;
+    }
+}